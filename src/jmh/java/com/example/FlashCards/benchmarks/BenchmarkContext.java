@@ -0,0 +1,73 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.FlashCardsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application for the service benchmarks: only profile test (embedded H2, no Preload), no web server,
+ * and logging turned down so the console doesn't end up in the measurements.
+ */
+final class BenchmarkContext {
+
+    private static final int BATCH = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        // command line arguments, so they win over spring.profiles.active=dev in application.properties
+        return new SpringApplicationBuilder(FlashCardsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    // plain JDBC batches, going through JPA would take longer than the benchmarks themselves at 1M rows
+    static void insertUsers(JdbcTemplate jdbcTemplate, long fromId, long toId, String password) {
+        insert(jdbcTemplate, "INSERT INTO users (user_id, name, password, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                fromId, toId, id -> new Object[]{id, "u" + id, password});
+    }
+
+    static void insertGlossaries(JdbcTemplate jdbcTemplate, long fromId, long toId, long userId) {
+        insert(jdbcTemplate, "INSERT INTO glossaries (glossary_id, name, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                fromId, toId, id -> new Object[]{id, "g" + id, userId});
+    }
+
+    static void insertWords(JdbcTemplate jdbcTemplate, long fromId, long toId, long glossaryId) {
+        insert(jdbcTemplate, "INSERT INTO words (word_id, name, glossary_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                fromId, toId, id -> new Object[]{id, "w" + id, glossaryId});
+    }
+
+    private interface Row {
+        Object[] values(long id);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String sql, long fromId, long toId, Row row) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (long id = fromId; id <= toId; id++) {
+            Object[] values = row.values(id);
+            Object[] withTimestamps = new Object[values.length + 2];
+            System.arraycopy(values, 0, withTimestamps, 0, values.length);
+            withTimestamps[values.length] = now;
+            withTimestamps[values.length + 1] = now;
+            batch.add(withTimestamps);
+            if (batch.size() == BATCH) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
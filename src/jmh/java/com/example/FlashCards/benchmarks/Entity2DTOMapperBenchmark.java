@@ -0,0 +1,97 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Hand-written Entity2DTOMapper against the reflective ModelMapper setup it replaced
+ * (same type maps as Entity2DTOMapper.addTypeMaps).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Entity2DTOMapperBenchmark {
+
+    ModelMapper reflective;
+    Entity2DTOMapper handWritten;
+
+    Word word;
+    List<Word> words;
+
+    @Setup
+    public void setUp() {
+        reflective = new ModelMapper();
+        reflective.typeMap(Glossary.class, GlossaryDTO.class).addMappings(mapper -> {
+            mapper.map(Glossary::getUser, GlossaryDTO::setUserDTO);
+        });
+        reflective.typeMap(Word.class, WordDTO.class).addMappings(mapper -> {
+            mapper.map(Word::getGlossary, WordDTO::setGlossaryDTO);
+        });
+        handWritten = new Entity2DTOMapper();
+
+        Instant now = Instant.now();
+        User user = User.builder()
+                .id(1L)
+                .name("u1")
+                .password("password")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        Glossary glossary = Glossary.builder()
+                .id(1L)
+                .name("g1")
+                .user(user)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        words = LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> Word.builder()
+                        .id(id)
+                        .name("w" + id)
+                        .glossary(glossary)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .collect(Collectors.toList());
+        word = words.get(0);
+    }
+
+    @Benchmark
+    public WordDTO wordReflective() {
+        return reflective.map(word, WordDTO.class);
+    }
+
+    @Benchmark
+    public WordDTO wordHandWritten() {
+        return handWritten.toDTO(word);
+    }
+
+    @Benchmark
+    public List<WordDTO> wordListReflective() {
+        return words.stream()
+                .map(w -> reflective.map(w, WordDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<WordDTO> wordListHandWritten() {
+        return words.stream()
+                .map(w -> handWritten.toDTO(w))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.services.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.login with a right and a wrong password, 1000 users in embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    ConfigurableApplicationContext context;
+    UserService userService;
+
+    UserDTO rightPassword;
+    UserDTO wrongPassword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userService = context.getBean(UserService.class);
+        BenchmarkContext.insertUsers(context.getBean(JdbcTemplate.class), 1, 1000, "password");
+
+        rightPassword = new UserDTO();
+        rightPassword.setName("u500");
+        rightPassword.setPassword("password");
+        wrongPassword = new UserDTO();
+        wrongPassword.setName("u500");
+        wrongPassword.setPassword("wrong");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean loginSuccess() {
+        return userService.login(rightPassword);
+    }
+
+    @Benchmark
+    public boolean loginFailure() {
+        return userService.login(wrongPassword);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.utils.RateLimiter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The allowed path of RateLimiter.acquire with 200k distinct keys in use, 8 threads: one bucket lookup
+ * and one CAS, the rate is high enough that nothing is turned away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    static final int KEYS = 200_000;
+
+    RateLimiter rateLimiter;
+    RateLimiter.Limit limit = new RateLimiter.Limit(1_000_000, 1_000_000);
+    String[] keys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(1_000_000, Duration.ofMinutes(10), Ticker.systemTicker());
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "id:" + i;
+            rateLimiter.acquire(keys[i], limit);
+        }
+    }
+
+    @Benchmark
+    public long acquire() {
+        return rateLimiter.acquire(keys[ThreadLocalRandom.current().nextInt(KEYS)], limit);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.services.GlossaryService;
+import com.example.FlashCards.services.WordService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WordService.getAllWords and GlossaryService.getAllGlossaries against embedded H2, where the glossary holds
+ * {@code rows} words and the user owns {@code rows} glossaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    WordService wordService;
+    GlossaryService glossaryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        wordService = context.getBean(WordService.class);
+        glossaryService = context.getBean(GlossaryService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.insertUsers(jdbcTemplate, 1, 1, "password");
+        BenchmarkContext.insertGlossaries(jdbcTemplate, 1, rows, 1);
+        BenchmarkContext.insertWords(jdbcTemplate, 1, rows, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<WordDTO> getAllWords() {
+        return wordService.getAllWords(1L);
+    }
+
+    @Benchmark
+    public List<GlossaryDTO> getAllGlossaries() {
+        return glossaryService.getAllGlossaries(1L);
+    }
+}
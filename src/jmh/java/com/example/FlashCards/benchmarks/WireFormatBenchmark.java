@@ -0,0 +1,115 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.DTOs.SliceDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A full page (500 words) of GET /words/glossary/{id} in each format the endpoint negotiates,
+ * encoded, decoded and encoded + gzipped (server.compression). The payload sizes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<SliceDTO<WordDTO>> PAGE = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    ObjectMapper mapper;
+    SliceDTO<WordDTO> page;
+    byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        // same settings as WireFormatConfiguration
+        mapper = switch (format) {
+            case "smile" -> SmileMapper.builder(SmileFactory.builder()
+                            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                            .build())
+                    .findAndAddModules()
+                    .build();
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            default -> JsonMapper.builder().findAndAddModules().build();
+        };
+
+        Instant now = Instant.now();
+        User user = User.builder()
+                .id(1L)
+                .name("u1")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        Glossary glossary = Glossary.builder()
+                .id(1L)
+                .name("g1")
+                .user(user)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        Entity2DTOMapper entity2DTOMapper = new Entity2DTOMapper();
+        List<WordDTO> words = LongStream.rangeClosed(1, 500)
+                .mapToObj(id -> entity2DTOMapper.toDTO(Word.builder()
+                        .id(id)
+                        .name("w" + id)
+                        .glossary(glossary)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()))
+                .collect(Collectors.toList());
+        page = new SliceDTO<>(words, "aS41MDA");
+
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf(Locale.ROOT, "%n%s: %d bytes, %d gzipped%n", format, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeGzipped() throws IOException {
+        return gzip(mapper.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public SliceDTO<WordDTO> decode() throws IOException {
+        return mapper.readValue(encoded, PAGE);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
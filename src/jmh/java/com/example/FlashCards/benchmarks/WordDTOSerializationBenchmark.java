@@ -0,0 +1,69 @@
+package com.example.FlashCards.benchmarks;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Jackson serialization of WordDTO lists, every word with its nested GlossaryDTO and UserDTO
+ * like the responses of GET /words/glossary/{glossaryId}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordDTOSerializationBenchmark {
+
+    @Param({"1", "50", "1000"})
+    int size;
+
+    // same modules as the ObjectMapper Spring Boot configures
+    ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    List<WordDTO> words;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(1L);
+        userDTO.setName("u1");
+        userDTO.setPassword("password");
+        userDTO.setCreatedAt(now);
+        userDTO.setUpdatedAt(now);
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setId(1L);
+        glossaryDTO.setName("g1");
+        glossaryDTO.setUserDTO(userDTO);
+        glossaryDTO.setCreatedAt(now);
+        glossaryDTO.setUpdatedAt(now);
+
+        words = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> {
+                    WordDTO wordDTO = new WordDTO();
+                    wordDTO.setId(id);
+                    wordDTO.setName("w" + id);
+                    wordDTO.setGlossaryDTO(glossaryDTO);
+                    wordDTO.setCreatedAt(now);
+                    wordDTO.setUpdatedAt(now);
+                    return wordDTO;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] writeWordList() throws Exception {
+        return objectMapper.writeValueAsBytes(words);
+    }
+}
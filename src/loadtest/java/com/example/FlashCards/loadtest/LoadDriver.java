@@ -0,0 +1,95 @@
+package com.example.FlashCards.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load: {@code clients} clients each send the next GET as soon as the previous one answered,
+ * for a fixed time. The clients are virtual threads whatever the server runs on, so the driver isn't the limit.
+ */
+class LoadDriver {
+
+    record Result(long requests, long errors, double seconds, long p50Micros, long p99Micros, long maxMicros) {
+
+        double throughput() {
+            return requests / seconds;
+        }
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    Result run(String baseUrl, List<String> paths, int clients, Duration duration) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int offset = client;
+                futures.add(executor.submit(() -> loop(baseUrl, paths, offset, end)));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        // per client: [errors, latency micros...]
+        long errors = 0;
+        long[] latencies = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] clientResult = future.get();
+            errors += clientResult[0];
+            int from = latencies.length;
+            latencies = Arrays.copyOf(latencies, from + clientResult.length - 1);
+            System.arraycopy(clientResult, 1, latencies, from, clientResult.length - 1);
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies.length, errors, seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    private long[] loop(String baseUrl, List<String> paths, int offset, long end) {
+        long[] latencies = new long[1024];
+        int count = 1;
+        long errors = 0;
+        for (int i = offset; System.nanoTime() < end; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(i % paths.size())))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = (System.nanoTime() - start) / 1000;
+        }
+        latencies[0] = errors;
+        return Arrays.copyOf(latencies, count);
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
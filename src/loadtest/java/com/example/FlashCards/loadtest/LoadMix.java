@@ -0,0 +1,306 @@
+package com.example.FlashCards.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays a weighted mix of the user, glossary and word endpoints against a running instance, e.g. one started
+ * with a large generated dataset (flashcards.preload.*), and reports throughput and latency per endpoint.
+ * <p>
+ * The ids come from the instance itself: a sample of users, their glossaries and the first words of those.
+ * words.add adds words that words.delete deletes again, so a run leaves the dataset as it found it.
+ * <p>
+ * Run with ./gradlew loadMix, see build.gradle for the parameters.
+ */
+public class LoadMix {
+
+    static final String DEFAULT_MIX = "users.list:5,users.get:10,users.login:5,glossaries.list:15,glossaries.get:15,"
+            + "words.list:25,words.get:20,words.add:3,words.delete:2";
+
+    static final List<String> OPERATIONS = List.of("users.list", "users.get", "users.login", "glossaries.list",
+            "glossaries.get", "words.list", "words.get", "words.add", "words.delete");
+
+    record Dataset(List<String> userNames, List<Long> userIds, List<Long> glossaryIds, List<Long> wordIds) {
+    }
+
+    record Operation(String name, int weight) {
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+    private final String password;
+    private final List<Operation> mix;
+    private final int totalWeight;
+    private final ConcurrentLinkedQueue<Long> added = new ConcurrentLinkedQueue<>();
+    private Dataset dataset;
+
+    LoadMix(String baseUrl, String password, List<Operation> mix) {
+        this.baseUrl = baseUrl;
+        this.password = password;
+        this.mix = mix;
+        this.totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.url", "http://localhost:8080");
+        int clients = Integer.parseInt(System.getProperty("load.clients", "50"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(System.getProperty("load.seconds", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(System.getProperty("load.warmup-seconds", "10")));
+        int sampleUsers = Integer.parseInt(System.getProperty("load.sample-users", "100"));
+        String password = System.getProperty("load.password", "password");
+        Path report = Path.of(System.getProperty("load.report", "build/reports/loadtest/load-mix.json"));
+        List<Operation> mix = parse(System.getProperty("load.mix", DEFAULT_MIX));
+
+        LoadMix loadMix = new LoadMix(baseUrl, password, mix);
+        loadMix.dataset = loadMix.sample(sampleUsers);
+        System.out.printf("%d users, %d glossaries, %d words sampled from %s%n", loadMix.dataset.userIds().size(),
+                loadMix.dataset.glossaryIds().size(), loadMix.dataset.wordIds().size(), baseUrl);
+
+        loadMix.run(clients, warmup);
+        Map<String, LoadDriver.Result> results = loadMix.run(clients, duration);
+        loadMix.cleanUp();
+
+        for (Map.Entry<String, LoadDriver.Result> entry : results.entrySet()) {
+            LoadDriver.Result result = entry.getValue();
+            System.out.printf("%-16s %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %d%n",
+                    entry.getKey(), result.throughput(), result.p50Micros() / 1000.0, result.p99Micros() / 1000.0,
+                    result.maxMicros() / 1000.0, result.errors());
+        }
+        write(report, baseUrl, clients, duration, results);
+    }
+
+    static List<Operation> parse(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            if (!OPERATIONS.contains(nameAndWeight[0])) {
+                throw new IllegalArgumentException("Unknown operation " + nameAndWeight[0] + " in load.mix, one of " + OPERATIONS);
+            }
+            operations.add(new Operation(nameAndWeight[0], Integer.parseInt(nameAndWeight[1])));
+        }
+        return operations;
+    }
+
+    private Dataset sample(int users) throws IOException, InterruptedException {
+        List<String> userNames = new ArrayList<>();
+        List<Long> userIds = new ArrayList<>();
+        List<Long> glossaryIds = new ArrayList<>();
+        List<Long> wordIds = new ArrayList<>();
+        for (JsonNode user : get("/users?limit=" + users).get("content")) {
+            userIds.add(user.get("id").asLong());
+            userNames.add(user.get("name").asText());
+            for (JsonNode glossary : get("/glossaries/user/" + user.get("id").asLong() + "?limit=20").get("content")) {
+                glossaryIds.add(glossary.get("id").asLong());
+                for (JsonNode word : get("/words/glossary/" + glossary.get("id").asLong() + "?limit=20").get("content")) {
+                    wordIds.add(word.get("id").asLong());
+                }
+            }
+        }
+        if (glossaryIds.isEmpty() || wordIds.isEmpty()) {
+            throw new IllegalStateException("No glossaries or words at " + baseUrl + ", start it with a dataset (flashcards.preload.*).");
+        }
+        return new Dataset(userNames, userIds, glossaryIds, wordIds);
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " answered " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    Map<String, LoadDriver.Result> run(int clients, Duration duration) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<Recorder>> futures = new ArrayList<>(clients);
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                futures.add(executor.submit(() -> loop(end)));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, LoadDriver.Result> results = new LinkedHashMap<>();
+        for (int op = 0; op < mix.size(); op++) {
+            long errors = 0;
+            long[] latencies = new long[0];
+            for (Future<Recorder> future : futures) {
+                Recorder recorder = future.get();
+                errors += recorder.errors[op];
+                int from = latencies.length;
+                latencies = Arrays.copyOf(latencies, from + recorder.counts[op]);
+                System.arraycopy(recorder.latencies[op], 0, latencies, from, recorder.counts[op]);
+            }
+            Arrays.sort(latencies);
+            results.put(mix.get(op).name(), new LoadDriver.Result(latencies.length, errors, seconds,
+                    LoadDriver.percentile(latencies, 0.50), LoadDriver.percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+        }
+        return results;
+    }
+
+    private Recorder loop(long end) {
+        Recorder recorder = new Recorder(mix.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            int op = pick(random.nextInt(totalWeight));
+            HttpRequest request = request(mix.get(op).name(), random);
+            if (request == null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                long micros = (System.nanoTime() - start) / 1000;
+                if (response.statusCode() >= 400) {
+                    recorder.errors[op]++;
+                    continue;
+                }
+                recorder.add(op, micros);
+                if (mix.get(op).name().equals("words.add")) {
+                    added.add(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+            } catch (Exception e) {
+                recorder.errors[op]++;
+            }
+        }
+        return recorder;
+    }
+
+    private int pick(int point) {
+        for (int op = 0; op < mix.size(); op++) {
+            point -= mix.get(op).weight();
+            if (point < 0) {
+                return op;
+            }
+        }
+        return mix.size() - 1;
+    }
+
+    // null when there is nothing to do, words.delete before any words.add
+    private HttpRequest request(String operation, ThreadLocalRandom random) {
+        return switch (operation) {
+            case "users.list" -> getRequest("/users?limit=20");
+            case "users.get" -> getRequest("/users/" + any(dataset.userIds(), random));
+            case "users.login" -> postRequest("/users/login?username="
+                    + URLEncoder.encode(any(dataset.userNames(), random), StandardCharsets.UTF_8)
+                    + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8), null);
+            case "glossaries.list" -> getRequest("/glossaries/user/" + any(dataset.userIds(), random) + "?limit=20");
+            case "glossaries.get" -> getRequest("/glossaries/" + any(dataset.glossaryIds(), random));
+            case "words.list" -> getRequest("/words/glossary/" + any(dataset.glossaryIds(), random) + "?limit=50");
+            case "words.get" -> getRequest("/words/" + any(dataset.wordIds(), random));
+            case "words.add" -> postRequest("/words/glossary/" + any(dataset.glossaryIds(), random),
+                    "{\"name\":\"load-" + UUID.randomUUID() + "\"}");
+            case "words.delete" -> {
+                Long wordId = added.poll();
+                yield wordId == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/words/" + wordId))
+                        .timeout(Duration.ofSeconds(30))
+                        .DELETE()
+                        .build();
+            }
+            default -> throw new IllegalArgumentException("Unknown operation " + operation + " in load.mix");
+        };
+    }
+
+    private HttpRequest getRequest(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest postRequest(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static <T> T any(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    // the words added by the run and not deleted by it
+    private void cleanUp() throws IOException, InterruptedException {
+        for (Long wordId = added.poll(); wordId != null; wordId = added.poll()) {
+            httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/words/" + wordId)).DELETE().build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    // latencies in micros per operation of one client
+    private static final class Recorder {
+        final long[][] latencies;
+        final int[] counts;
+        final long[] errors;
+
+        Recorder(int operations) {
+            latencies = new long[operations][256];
+            counts = new int[operations];
+            errors = new long[operations];
+        }
+
+        void add(int op, long micros) {
+            if (counts[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+            }
+            latencies[op][counts[op]++] = micros;
+        }
+    }
+
+    private static void write(Path report, String baseUrl, int clients, Duration duration,
+                              Map<String, LoadDriver.Result> results) throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"url\":\"").append(baseUrl).append('"')
+                .append(",\"clients\":").append(clients)
+                .append(",\"seconds\":").append(duration.toSeconds())
+                .append(",\"results\":{");
+        String separator = "";
+        for (Map.Entry<String, LoadDriver.Result> entry : results.entrySet()) {
+            LoadDriver.Result result = entry.getValue();
+            json.append(separator).append('"').append(entry.getKey()).append("\":{")
+                    .append("\"requests\":").append(result.requests())
+                    .append(",\"errors\":").append(result.errors())
+                    .append(",\"throughput\":").append(String.format(Locale.ROOT, "%.1f", result.throughput()))
+                    .append(",\"p50Micros\":").append(result.p50Micros())
+                    .append(",\"p99Micros\":").append(result.p99Micros())
+                    .append(",\"maxMicros\":").append(result.maxMicros())
+                    .append('}');
+            separator = ",";
+        }
+        json.append("}}\n");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, json);
+        System.out.println("Written to " + report);
+    }
+}
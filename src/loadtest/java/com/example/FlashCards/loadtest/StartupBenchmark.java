@@ -0,0 +1,164 @@
+package com.example.FlashCards.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first served request: starts the application from build/faststart as a new JVM, again and again,
+ * and measures from starting the process until GET /users answers 200 (so beans created on that first request
+ * count too). Every start gets its own in-memory database and answer journal.
+ * <p>
+ * Modes: the default setup, the faststart profile, faststart with the CDS archive and, when built with -Paot,
+ * faststart with CDS and the AOT-processed bean definitions.
+ * <p>
+ * Run with ./gradlew startupBenchmark (or ./gradlew -Paot startupBenchmark), see build.gradle for the parameters.
+ */
+public class StartupBenchmark {
+
+    static final String MAIN_CLASS = "com.example.FlashCards.FlashCardsApplication";
+    static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    record Mode(String name, List<String> jvmArgs, String profiles) {
+    }
+
+    record Result(long minMs, long medianMs, long maxMs) {
+    }
+
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("startup.dir", "build/faststart"));
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        boolean aot = Boolean.parseBoolean(System.getProperty("startup.aot", "false"));
+        Path report = Path.of(System.getProperty("startup.report", "build/reports/startup/startup.json"));
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        List<Mode> modes = new ArrayList<>(List.of(
+                new Mode("default", List.of(), "default"),
+                new Mode("faststart", List.of(), "faststart"),
+                new Mode("faststart-cds", List.of("-XX:SharedArchiveFile=flashcards.jsa"), "faststart")));
+        if (aot) {
+            modes.add(new Mode("faststart-cds-aot",
+                    List.of("-XX:SharedArchiveFile=flashcards.jsa", "-Dspring.aot.enabled=true"), "faststart"));
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Mode mode : modes) {
+            // one start to fill the OS file cache, not measured
+            start(java, dir, mode, report.resolveSibling(mode.name() + ".log"));
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                millis[run] = start(java, dir, mode, report.resolveSibling(mode.name() + ".log"));
+            }
+            Arrays.sort(millis);
+            Result result = new Result(millis[0], millis[runs / 2], millis[runs - 1]);
+            results.put(mode.name(), result);
+            System.out.printf("%-18s median %6d ms  min %6d ms  max %6d ms%n",
+                    mode.name(), result.medianMs(), result.minMs(), result.maxMs());
+        }
+        write(report, runs, results);
+    }
+
+    // milliseconds from starting the JVM to the first 200 of GET /users
+    private static long start(String java, Path dir, Mode mode, Path log) throws Exception {
+        int port = freePort();
+        Path journal = Files.createTempDirectory("startup-journal");
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(mode.jvmArgs());
+        // -cp from faststartDist, relative to build/faststart like in the CDS training run
+        command.add("@jvm.args");
+        command.add(MAIN_CLASS);
+        command.add("--spring.profiles.active=" + mode.profiles());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1");
+        command.add("--flashcards.answers.journal-dir=" + journal);
+        Files.createDirectories(log.getParent());
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+            long deadline = started + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(mode.name() + " didn't answer within " + TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            delete(journal.toFile());
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void write(Path report, int runs, Map<String, Result> results) throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"runs\":").append(runs)
+                .append(",\"java\":\"").append(Runtime.version()).append('"')
+                .append(",\"results\":{");
+        String separator = "";
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result result = entry.getValue();
+            json.append(separator).append('"').append(entry.getKey()).append("\":{")
+                    .append("\"minMs\":").append(result.minMs())
+                    .append(",\"medianMs\":").append(result.medianMs())
+                    .append(",\"maxMs\":").append(result.maxMs())
+                    .append('}');
+            separator = ",";
+        }
+        json.append("}}\n");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, json);
+        System.out.println("Written to " + report);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.FlashCards.loadtest;
+
+import com.example.FlashCards.FlashCardsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+/**
+ * Starts the application twice, once on Tomcat's platform thread pool and once with the virtual profile,
+ * and runs the same load against both: paged word lists of a few glossaries, each statement delayed
+ * to stand in for a slow database. Both runs use the same connection pool size.
+ * <p>
+ * Run with ./gradlew loadTest, see build.gradle for the parameters.
+ */
+public class ThreadModeComparison {
+
+    static final int GLOSSARIES = 20;
+    static final int WORDS_PER_GLOSSARY = 500;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.parseInt(System.getProperty("loadtest.clients", "1000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(System.getProperty("loadtest.seconds", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(System.getProperty("loadtest.warmup-seconds", "10")));
+        Duration dbLatency = Duration.ofMillis(Long.parseLong(System.getProperty("loadtest.db-latency-ms", "5")));
+        String poolSize = System.getProperty("loadtest.pool-size", "50");
+        Path report = Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/thread-modes.json"));
+
+        List<String> paths = LongStream.rangeClosed(1, GLOSSARIES)
+                .mapToObj(glossaryId -> "/words/glossary/" + glossaryId + "?limit=50")
+                .toList();
+
+        Map<String, LoadDriver.Result> results = new LinkedHashMap<>();
+        for (String mode : List.of("platform", "virtual")) {
+            String profiles = mode.equals("virtual") ? "test,virtual" : "test";
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FlashCardsApplication.class)
+                    .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SlowDataSource(dbLatency)))
+                    .run("--spring.profiles.active=" + profiles,
+                            "--server.port=0",
+                            "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                            "--spring.jpa.show-sql=false",
+                            "--flashcards.rate-limit.enabled=false",
+                            "--logging.level.root=WARN")) {
+                seed(context.getBean(JdbcTemplate.class));
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+                LoadDriver driver = new LoadDriver();
+                driver.run(baseUrl, paths, clients, warmup);
+                LoadDriver.Result result = driver.run(baseUrl, paths, clients, duration);
+                results.put(mode, result);
+                System.out.printf("%-8s %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %d%n",
+                        mode, result.throughput(), result.p50Micros() / 1000.0, result.p99Micros() / 1000.0,
+                        result.maxMicros() / 1000.0, result.errors());
+            }
+        }
+        write(report, clients, duration, dbLatency, poolSize, results);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO users (user_id, name, password, created_at, updated_at) VALUES (1, 'u1', 'password', ?, ?)",
+                now, now);
+        List<Object[]> glossaries = new ArrayList<>();
+        List<Object[]> words = new ArrayList<>();
+        long wordId = 1;
+        for (long glossaryId = 1; glossaryId <= GLOSSARIES; glossaryId++) {
+            glossaries.add(new Object[]{glossaryId, "g" + glossaryId, now, now});
+            for (int i = 0; i < WORDS_PER_GLOSSARY; i++, wordId++) {
+                words.add(new Object[]{wordId, "w" + wordId, glossaryId, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO glossaries (glossary_id, name, user_id, created_at, updated_at) VALUES (?, ?, 1, ?, ?)",
+                glossaries);
+        jdbcTemplate.batchUpdate("INSERT INTO words (word_id, name, glossary_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                words);
+    }
+
+    private static void write(Path report, int clients, Duration duration, Duration dbLatency, String poolSize,
+                              Map<String, LoadDriver.Result> results) throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"clients\":").append(clients)
+                .append(",\"seconds\":").append(duration.toSeconds())
+                .append(",\"dbLatencyMs\":").append(dbLatency.toMillis())
+                .append(",\"poolSize\":").append(poolSize)
+                .append(",\"results\":{");
+        String separator = "";
+        for (Map.Entry<String, LoadDriver.Result> entry : results.entrySet()) {
+            LoadDriver.Result result = entry.getValue();
+            json.append(separator).append('"').append(entry.getKey()).append("\":{")
+                    .append("\"requests\":").append(result.requests())
+                    .append(",\"errors\":").append(result.errors())
+                    .append(",\"throughput\":").append(String.format(Locale.ROOT, "%.1f", result.throughput()))
+                    .append(",\"p50Micros\":").append(result.p50Micros())
+                    .append(",\"p99Micros\":").append(result.p99Micros())
+                    .append(",\"maxMicros\":").append(result.maxMicros())
+                    .append('}');
+            separator = ",";
+        }
+        json.append("}}\n");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, json);
+        System.out.println("Written to " + report);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+// an answer for POST /reviews/answers, eventId and answeredAt are filled in when missing
+@Data
+public class AnswerEventDTO {
+    private String eventId;
+    private Long wordId;
+    private Integer grade;
+    private Instant answeredAt;
+}
@@ -0,0 +1,41 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkImportResultDTO {
+    private int received;
+    private int created;
+    private int rejected;
+    private int failed;
+    // set when the request body stopped being a valid JSON array, items before that are still imported
+    private String error;
+    private List<Item> items = new ArrayList<>();
+
+    public enum Status {CREATED, REJECTED, FAILED}
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private String name;
+        private Long id;
+        private Status status;
+        private String message;
+    }
+
+    public void add(Item item) {
+        items.add(item);
+        switch (item.getStatus()) {
+            case CREATED -> created++;
+            case REJECTED -> rejected++;
+            case FAILED -> failed++;
+        }
+    }
+}
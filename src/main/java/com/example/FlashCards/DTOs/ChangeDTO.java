@@ -0,0 +1,36 @@
+package com.example.FlashCards.DTOs;
+
+import com.example.FlashCards.entities.ChangeLogEntry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One entry of GET /users/{userId}/changes. An UPSERT carries the current user, glossary or word, null when it is
+// gone by now (a later entry deletes it).
+@Data
+@NoArgsConstructor
+public class ChangeDTO {
+    private long seq;
+    private ChangeLogEntry.EntityType entity;
+    private Long id;
+    private Long glossaryId;
+    private ChangeLogEntry.Op op;
+    private Instant changedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UserDTO user;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private GlossaryDTO glossary;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private WordDTO word;
+
+    public ChangeDTO(ChangeLogEntry entry) {
+        this.seq = entry.getSeq();
+        this.entity = entry.getEntity();
+        this.id = entry.getEntityId();
+        this.glossaryId = entry.getGlossaryId();
+        this.op = entry.getOp();
+        this.changedAt = entry.getChangedAt();
+    }
+}
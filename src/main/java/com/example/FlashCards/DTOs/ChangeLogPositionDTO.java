@@ -0,0 +1,14 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// User.changeSeq and User.compactedSeq
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogPositionDTO {
+    private long changeSeq;
+    private long compactedSeq;
+}
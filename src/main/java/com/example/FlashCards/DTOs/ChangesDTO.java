@@ -0,0 +1,22 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of GET /users/{userId}/changes. next is the token for the next call, more tells there is another page
+ * already. reset means the changes since the token are no longer all in the log (or there was no token): load the
+ * glossaries and words anew, then go on from next.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangesDTO {
+    private List<ChangeDTO> changes;
+    private String next;
+    private boolean more;
+    private boolean reset;
+}
@@ -0,0 +1,15 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// rows removed by one of the bulk deletes, review cards go along with their words
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteResultDTO {
+    private int users;
+    private int glossaries;
+    private int words;
+}
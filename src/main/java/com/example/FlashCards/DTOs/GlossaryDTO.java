@@ -1,14 +1,47 @@
 package com.example.FlashCards.DTOs;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
 @Data
+@NoArgsConstructor
 public class GlossaryDTO {
     private Long id;
     private String name;
     private UserDTO userDTO;
     private Instant createdAt;
     private Instant updatedAt;
+    // see UserDTO.version
+    private Long version;
+    // only filled by the reads of glossaries themselves, not where a word embeds its glossary
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long wordCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastActivityAt;
+
+    // select new ... in WordRepository, the glossary a word embeds
+    public GlossaryDTO(Long id, String name, Instant createdAt, Instant updatedAt, Long version,
+                       Long userId, String userName, Instant userCreatedAt, Instant userUpdatedAt, Long userVersion) {
+        this.id = id;
+        this.name = name;
+        this.userDTO = userId == null ? null : new UserDTO(userId, userName, userCreatedAt, userUpdatedAt, userVersion);
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    // select new ... in GlossaryRepository, one flat row of glossary and user columns
+    public GlossaryDTO(Long id, String name, Instant createdAt, Instant updatedAt, Long version,
+                       Long wordCount, Instant lastActivityAt,
+                       Long userId, String userName, Instant userCreatedAt, Instant userUpdatedAt, Long userVersion) {
+        this(id, name, createdAt, updatedAt, version, userId, userName, userCreatedAt, userUpdatedAt, userVersion);
+        this.wordCount = wordCount;
+        this.lastActivityAt = lastActivityAt;
+    }
 }
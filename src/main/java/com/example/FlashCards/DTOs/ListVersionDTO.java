@@ -0,0 +1,27 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Validators of a list endpoint: a counter bumped by every change to the list
+ * (see Glossary.wordsVersion, User.glossariesVersion) and the time of that change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListVersionDTO {
+    private long version;
+    private Instant modifiedAt;
+
+    public String etag() {
+        return "W/\"" + version + "\"";
+    }
+
+    public long lastModified() {
+        return modifiedAt == null ? -1 : modifiedAt.toEpochMilli();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReviewCardDTO {
+    private Long wordId;
+    private String name;
+    private Long glossaryId;
+    private Instant dueAt;
+    private int intervalDays;
+    private double ease;
+    private int repetitions;
+    private int lapses;
+    private Instant lastReviewedAt;
+}
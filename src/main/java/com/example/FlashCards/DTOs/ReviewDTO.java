@@ -0,0 +1,10 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.Data;
+
+// an answer to a card, grade 0 (blackout) to 5 (perfect recall) as in SM-2
+@Data
+public class ReviewDTO {
+    private Long wordId;
+    private Integer grade;
+}
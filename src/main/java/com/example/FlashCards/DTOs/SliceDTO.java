@@ -0,0 +1,28 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceDTO<T> {
+    private List<T> content;
+    // opaque cursor of the next page, null on the last page
+    private String next;
+
+    public static <E, T> SliceDTO<T> of(Slice<E> slice, Function<E, T> mapper, Function<E, String> cursorOf) {
+        List<E> rows = slice.getContent();
+        List<T> content = rows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        String next = slice.hasNext() ? cursorOf.apply(rows.get(rows.size() - 1)) : null;
+        return new SliceDTO<>(content, next);
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.FlashCards.DTOs;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
 @Data
+@NoArgsConstructor
 public class UserDTO {
 
     private Long id;
@@ -14,5 +17,31 @@ public class UserDTO {
     private String password;
     private Instant createdAt;
     private Instant updatedAt;
+    // sent back with PATCH, the change only goes through if nobody changed the user in between
+    private Long version;
+    // only filled by the reads of users themselves, see GlossaryDTO.wordCount
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long glossaryCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastActivityAt;
 
+    // select new ... in GlossaryRepository and WordRepository, the user a glossary or word embeds.
+    // The password is never read for a response.
+    public UserDTO(Long id, String name, Instant createdAt, Instant updatedAt, Long version) {
+        this.id = id;
+        this.name = name;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    // select new ... in UserRepository
+    public UserDTO(Long id, String name, Instant createdAt, Instant updatedAt, Long version,
+                   Long glossaryCount, Instant lastActivityAt) {
+        this(id, name, createdAt, updatedAt, version);
+        this.glossaryCount = glossaryCount;
+        this.lastActivityAt = lastActivityAt;
+    }
 }
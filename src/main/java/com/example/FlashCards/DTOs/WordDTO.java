@@ -1,14 +1,31 @@
 package com.example.FlashCards.DTOs;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
 @Data
+@NoArgsConstructor
 public class WordDTO {
     private Long id;
     private String name;
     private GlossaryDTO glossaryDTO;
     private Instant createdAt;
     private Instant updatedAt;
+    // see UserDTO.version
+    private Long version;
+
+    // select new ... in WordRepository, one flat row of word, glossary and user columns
+    public WordDTO(Long id, String name, Instant createdAt, Instant updatedAt, Long version,
+                   Long glossaryId, String glossaryName, Instant glossaryCreatedAt, Instant glossaryUpdatedAt, Long glossaryVersion,
+                   Long userId, String userName, Instant userCreatedAt, Instant userUpdatedAt, Long userVersion) {
+        this.id = id;
+        this.name = name;
+        this.glossaryDTO = glossaryId == null ? null : new GlossaryDTO(glossaryId, glossaryName, glossaryCreatedAt, glossaryUpdatedAt,
+                glossaryVersion, userId, userName, userCreatedAt, userUpdatedAt, userVersion);
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
 }
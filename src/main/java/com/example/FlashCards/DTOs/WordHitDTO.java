@@ -0,0 +1,14 @@
+package com.example.FlashCards.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WordHitDTO {
+    private Long id;
+    private String name;
+    private Long glossaryId;
+}
@@ -0,0 +1,284 @@
+package com.example.FlashCards.caches;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.utils.Transactions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Already serialized JSON of GET /glossaries/{id} and GET /words/{id}, bounded by the total number of bytes
+ * (Caffeine, W-TinyLFU eviction).
+ * <p>
+ * A cached word embeds its glossary and user, and a cached glossary embeds its user, so every entry is also
+ * indexed by the glossary and user it contains. The services evict through those indexes when a parent changes.
+ * <p>
+ * Every entry keeps its validators as well: a weak ETag from the bytes and Last-Modified as the latest
+ * updatedAt of the embedded entities, so a conditional GET that hits is answered with 304 straight away.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    // rough per entry cost of key, entry and index objects, so tiny entries still count
+    private static final int ENTRY_OVERHEAD = 96;
+    // how long the stamp of an eviction is kept, longer than any load should take
+    private static final Duration EVICTION_MEMORY = Duration.ofMinutes(1);
+
+    // USER only marks evictions, see recentlyEvicted
+    public enum Kind {GLOSSARY, WORD, USER}
+
+    public record Key(Kind kind, long id) {
+    }
+
+    public record Response(byte[] json, String etag, long lastModified) {
+    }
+
+    record Entry(Response response, Long glossaryId, Long userId) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Key, Entry> cache;
+
+    private final ConcurrentMap<Long, Set<Key>> keysByGlossary = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Key>> keysByUser = new ConcurrentHashMap<>();
+    // Every eviction takes the next number and stamps its scope (the key, glossary or user) with it. A load that
+    // overlaps an eviction of its key, its glossary or its user doesn't keep its result, other loads do.
+    private final AtomicLong evictions = new AtomicLong();
+    private final Cache<Key, Long> evictedAt;
+    // highest stamp that expired from evictedAt, loads older than that can't tell and don't keep their result
+    private final AtomicLong forgottenEvictions = new AtomicLong();
+    // Keys, glossaries and users evicted within the settle time. With read replicas a load right after a change
+    // may still see the old rows, it is served but not cached. Null when settle-time-ms is 0.
+    private final Cache<Key, Boolean> recentlyEvicted;
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         @Value("${flashcards.response-cache.enabled:true}") boolean enabled,
+                         @Value("${flashcards.response-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${flashcards.response-cache.settle-time-ms:0}") long settleTimeMs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.recentlyEvicted = settleTimeMs <= 0 ? null : Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(settleTimeMs))
+                .<Key, Boolean>build();
+        this.evictedAt = Caffeine.newBuilder()
+                .expireAfterWrite(EVICTION_MEMORY)
+                // in the same map operation, a stamp is never gone without being counted as forgotten
+                .evictionListener((Key key, Long stamp, RemovalCause cause) -> {
+                    if (stamp != null) {
+                        forgottenEvictions.accumulateAndGet(stamp, Math::max);
+                    }
+                })
+                .executor(Runnable::run)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.response().json().length + ENTRY_OVERHEAD)
+                .executor(Runnable::run)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED && entry != null) {
+                        unindex(key, entry);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public Response glossary(Long glossaryId, Supplier<GlossaryDTO> loader) {
+        return get(new Key(Kind.GLOSSARY, glossaryId), () -> {
+            GlossaryDTO glossaryDTO = loader.get();
+            UserDTO userDTO = glossaryDTO.getUserDTO();
+            Response response = response(serialize(glossaryDTO), glossaryDTO.getUpdatedAt(), glossaryDTO.getLastActivityAt(),
+                    userDTO == null ? null : userDTO.getUpdatedAt());
+            return new Entry(response, glossaryDTO.getId(), userDTO == null ? null : userDTO.getId());
+        });
+    }
+
+    public Response word(Long wordId, Supplier<WordDTO> loader) {
+        return get(new Key(Kind.WORD, wordId), () -> {
+            WordDTO wordDTO = loader.get();
+            GlossaryDTO glossaryDTO = wordDTO.getGlossaryDTO();
+            UserDTO userDTO = glossaryDTO == null ? null : glossaryDTO.getUserDTO();
+            Response response = response(serialize(wordDTO), wordDTO.getUpdatedAt(),
+                    glossaryDTO == null ? null : glossaryDTO.getUpdatedAt(),
+                    userDTO == null ? null : userDTO.getUpdatedAt());
+            return new Entry(response, glossaryDTO == null ? null : glossaryDTO.getId(), userDTO == null ? null : userDTO.getId());
+        });
+    }
+
+    private Response get(Key key, Supplier<Entry> loader) {
+        if (!enabled) {
+            return loader.get().response();
+        }
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.response();
+        }
+
+        long stamp = evictions.get();
+        Entry loaded = loader.get();
+        if (settling(key, loaded)) {
+            return loaded.response();
+        }
+        index(key, loaded);
+        cache.put(key, loaded);
+        if (evictedSince(stamp, key, loaded)) {
+            cache.invalidate(key);
+        }
+        return loaded.response();
+    }
+
+    public void evictWord(Long wordId) {
+        Key key = new Key(Kind.WORD, wordId);
+        evict(key, () -> cache.invalidate(key));
+    }
+
+    // the glossary itself and every word that embeds it
+    public void evictGlossary(Long glossaryId) {
+        Key key = new Key(Kind.GLOSSARY, glossaryId);
+        evict(key, () -> {
+            cache.invalidate(key);
+            invalidateAll(keysByGlossary.remove(glossaryId));
+        });
+    }
+
+    // the glossary alone when only its counters changed, the words embed it without them
+    public void evictGlossaryOnly(Long glossaryId) {
+        Key key = new Key(Kind.GLOSSARY, glossaryId);
+        evict(key, () -> cache.invalidate(key));
+    }
+
+    public void evictWordsOfGlossary(Long glossaryId) {
+        evict(new Key(Kind.GLOSSARY, glossaryId), () -> invalidateAll(keysByGlossary.remove(glossaryId)));
+    }
+
+    // every glossary and word that embeds the user
+    public void evictUser(Long userId) {
+        evict(new Key(Kind.USER, userId), () -> invalidateAll(keysByUser.remove(userId)));
+    }
+
+    // cache.gets/puts/evictions with cache=responses, picked up by Boot as a MeterBinder bean
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "responses");
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long entries() {
+        return cache.estimatedSize();
+    }
+
+    public long bytes() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private void evict(Key scope, Runnable eviction) {
+        stamp(scope);
+        eviction.run();
+        // once more after the transaction, a read running in between may have cached the old state again
+        Transactions.afterCompletion(() -> {
+            stamp(scope);
+            eviction.run();
+            if (recentlyEvicted != null) {
+                recentlyEvicted.put(scope, Boolean.TRUE);
+            }
+        });
+    }
+
+    private void stamp(Key scope) {
+        long stamp = evictions.incrementAndGet();
+        evictedAt.asMap().merge(scope, stamp, Math::max);
+    }
+
+    private boolean evictedSince(long stamp, Key key, Entry entry) {
+        return evictedAfter(stamp, key)
+                || (entry.glossaryId() != null && evictedAfter(stamp, new Key(Kind.GLOSSARY, entry.glossaryId())))
+                || (entry.userId() != null && evictedAfter(stamp, new Key(Kind.USER, entry.userId())))
+                || forgottenEvictions.get() > stamp;
+    }
+
+    private boolean evictedAfter(long stamp, Key scope) {
+        Long evicted = evictedAt.getIfPresent(scope);
+        return evicted != null && evicted > stamp;
+    }
+
+    private boolean settling(Key key, Entry entry) {
+        if (recentlyEvicted == null) {
+            return false;
+        }
+        return recentlyEvicted.getIfPresent(key) != null
+                || (entry.glossaryId() != null && recentlyEvicted.getIfPresent(new Key(Kind.GLOSSARY, entry.glossaryId())) != null)
+                || (entry.userId() != null && recentlyEvicted.getIfPresent(new Key(Kind.USER, entry.userId())) != null);
+    }
+
+    private void invalidateAll(Set<Key> keys) {
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void index(Key key, Entry entry) {
+        if (key.kind() == Kind.WORD && entry.glossaryId() != null) {
+            keysByGlossary.computeIfAbsent(entry.glossaryId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (entry.userId() != null) {
+            keysByUser.computeIfAbsent(entry.userId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindex(Key key, Entry entry) {
+        if (entry.glossaryId() != null) {
+            keysByGlossary.computeIfPresent(entry.glossaryId(), (id, keys) -> without(keys, key));
+        }
+        if (entry.userId() != null) {
+            keysByUser.computeIfPresent(entry.userId(), (id, keys) -> without(keys, key));
+        }
+    }
+
+    private static Set<Key> without(Set<Key> keys, Key key) {
+        keys.remove(key);
+        return keys.isEmpty() ? null : keys;
+    }
+
+    private static Response response(byte[] json, Instant... updatedAts) {
+        long lastModified = -1;
+        for (Instant updatedAt : updatedAts) {
+            if (updatedAt != null) {
+                lastModified = Math.max(lastModified, updatedAt.toEpochMilli());
+            }
+        }
+        return new Response(json, "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"", lastModified);
+    }
+
+    private byte[] serialize(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + dto, e);
+        }
+    }
+}
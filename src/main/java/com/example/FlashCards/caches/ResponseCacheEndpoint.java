@@ -0,0 +1,33 @@
+package com.example.FlashCards.caches;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/responsecache
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    @Autowired
+    ResponseCache responseCache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = responseCache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        body.put("evictedBytes", stats.evictionWeight());
+        body.put("entries", responseCache.entries());
+        body.put("bytes", responseCache.bytes());
+        return body;
+    }
+}
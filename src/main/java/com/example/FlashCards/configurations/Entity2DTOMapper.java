@@ -1,8 +1,12 @@
 package com.example.FlashCards.configurations;
 
 import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ReviewCardDTO;
+import com.example.FlashCards.DTOs.UserDTO;
 import com.example.FlashCards.DTOs.WordDTO;
 import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.ReviewCard;
+import com.example.FlashCards.entities.User;
 import com.example.FlashCards.entities.Word;
 import lombok.Getter;
 import org.modelmapper.ModelMapper;
@@ -12,14 +16,135 @@ import org.springframework.stereotype.Component;
 @Getter
 public class Entity2DTOMapper extends ModelMapper{
 
-    public Entity2DTOMapper() {
-        this.typeMap(Glossary.class, GlossaryDTO.class).addMappings(mapper -> {
-            mapper.map(Glossary::getUser,
-                    GlossaryDTO::setUserDTO);
-        });
-        this.typeMap(Word.class, WordDTO.class).addMappings(mapper -> {
-            mapper.map(Word::getGlossary,
-                    WordDTO::setGlossaryDTO);
-        });
+    private volatile boolean typeMapsAdded;
+
+    // built on the first call that reaches ModelMapper, not at startup: map(Object, Class) below
+    // never gets there for these pairs
+    private void addTypeMaps() {
+        if (typeMapsAdded) {
+            return;
+        }
+        synchronized (this) {
+            if (!typeMapsAdded) {
+                this.typeMap(Glossary.class, GlossaryDTO.class).addMappings(mapper -> {
+                    mapper.map(Glossary::getUser,
+                            GlossaryDTO::setUserDTO);
+                });
+                this.typeMap(Word.class, WordDTO.class).addMappings(mapper -> {
+                    mapper.map(Word::getGlossary,
+                            WordDTO::setGlossaryDTO);
+                });
+                typeMapsAdded = true;
+            }
+        }
+    }
+
+    @Override
+    public void map(Object source, Object destination) {
+        addTypeMaps();
+        super.map(source, destination);
+    }
+
+    // The pairs below are mapped by hand: plain getters and setters instead of ModelMapper's
+    // reflective property matching. The output is the same as with the type maps of addTypeMaps,
+    // ModelMapper is only used for any other pair.
+    @Override
+    public <D> D map(Object source, Class<D> destinationType) {
+        Object mapped = null;
+        if (destinationType == UserDTO.class && source instanceof User user) {
+            mapped = toDTO(user);
+        } else if (destinationType == GlossaryDTO.class && source instanceof Glossary glossary) {
+            mapped = toDTO(glossary);
+        } else if (destinationType == WordDTO.class && source instanceof Word word) {
+            mapped = toDTO(word);
+        } else if (destinationType == User.class && source instanceof UserDTO userDTO) {
+            mapped = toEntity(userDTO);
+        } else if (destinationType == Glossary.class && source instanceof GlossaryDTO glossaryDTO) {
+            mapped = toEntity(glossaryDTO);
+        } else if (destinationType == Word.class && source instanceof WordDTO wordDTO) {
+            mapped = toEntity(wordDTO);
+        }
+        if (mapped != null) {
+            return destinationType.cast(mapped);
+        }
+        addTypeMaps();
+        return super.map(source, destinationType);
+    }
+
+    public UserDTO toDTO(User user) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setName(user.getName());
+        userDTO.setPassword(user.getPassword());//write only in JSON
+        userDTO.setCreatedAt(user.getCreatedAt());
+        userDTO.setUpdatedAt(user.getUpdatedAt());
+        userDTO.setVersion(user.getVersion());
+        return userDTO;
+    }
+
+    public GlossaryDTO toDTO(Glossary glossary) {
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setId(glossary.getId());
+        glossaryDTO.setName(glossary.getName());
+        glossaryDTO.setUserDTO(glossary.getUser() == null ? null : toDTO(glossary.getUser()));
+        glossaryDTO.setCreatedAt(glossary.getCreatedAt());
+        glossaryDTO.setUpdatedAt(glossary.getUpdatedAt());
+        glossaryDTO.setVersion(glossary.getVersion());
+        return glossaryDTO;
+    }
+
+    public WordDTO toDTO(Word word) {
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setId(word.getId());
+        wordDTO.setName(word.getName());
+        wordDTO.setGlossaryDTO(word.getGlossary() == null ? null : toDTO(word.getGlossary()));
+        wordDTO.setCreatedAt(word.getCreatedAt());
+        wordDTO.setUpdatedAt(word.getUpdatedAt());
+        wordDTO.setVersion(word.getVersion());
+        return wordDTO;
+    }
+
+    public ReviewCardDTO toDTO(ReviewCard card) {
+        ReviewCardDTO cardDTO = new ReviewCardDTO();
+        cardDTO.setWordId(card.getWordId());
+        cardDTO.setName(card.getWord().getName());
+        cardDTO.setGlossaryId(card.getWord().getGlossary().getId());//id of the proxy, no query
+        cardDTO.setDueAt(card.getDueAt());
+        cardDTO.setIntervalDays(card.getIntervalDays());
+        cardDTO.setEase(card.getEase());
+        cardDTO.setRepetitions(card.getRepetitions());
+        cardDTO.setLapses(card.getLapses());
+        cardDTO.setLastReviewedAt(card.getLastReviewedAt());
+        return cardDTO;
+    }
+
+    public User toEntity(UserDTO userDTO) {
+        return User.builder()
+                .id(userDTO.getId())
+                .name(userDTO.getName())
+                .password(userDTO.getPassword())
+                .createdAt(userDTO.getCreatedAt())
+                .updatedAt(userDTO.getUpdatedAt())
+                .build();
+    }
+
+    public Glossary toEntity(GlossaryDTO glossaryDTO) {
+        return Glossary.builder()
+                .id(glossaryDTO.getId())
+                .name(glossaryDTO.getName())
+                .user(glossaryDTO.getUserDTO() == null ? null : toEntity(glossaryDTO.getUserDTO()))
+                .createdAt(glossaryDTO.getCreatedAt())
+                .updatedAt(glossaryDTO.getUpdatedAt())
+                .build();
+    }
+
+    public Word toEntity(WordDTO wordDTO) {
+        return Word.builder()
+                .id(wordDTO.getId())
+                .name(wordDTO.getName())
+                .glossary(wordDTO.getGlossaryDTO() == null ? null : toEntity(wordDTO.getGlossaryDTO()))
+                .createdAt(wordDTO.getCreatedAt())
+                .updatedAt(wordDTO.getUpdatedAt())
+                .build();
     }
 }
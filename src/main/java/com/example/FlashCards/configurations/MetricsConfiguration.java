@@ -0,0 +1,17 @@
+package com.example.FlashCards.configurations;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    // makes @Timed on the services work: one timer per class and method, tagged with the exception
+    // (exception="none" on success), so the error count of a method is the count of its other tags
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
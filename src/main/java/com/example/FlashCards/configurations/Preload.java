@@ -1,85 +1,33 @@
 package com.example.FlashCards.configurations;
 
-import com.example.FlashCards.entities.Glossary;
-import com.example.FlashCards.entities.User;
-import com.example.FlashCards.entities.Word;
-import com.example.FlashCards.repositories.GlossaryRepository;
-import com.example.FlashCards.repositories.UserRepository;
-import com.example.FlashCards.repositories.WordRepository;
-import lombok.extern.slf4j.Slf4j;
+import com.example.FlashCards.services.DatasetGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
-@Slf4j
+// demo data on an empty database, off with flashcards.preload.enabled=false (prod and faststart).
+// Sized by flashcards.preload.*, e.g. 10000 users x 10 glossaries x 100 words for 10M words.
 @Profile("!test")//prevent this Bean from running in tests
+@ConditionalOnProperty(name = "flashcards.preload.enabled", havingValue = "true", matchIfMissing = true)
 @Configuration
 public class Preload {
-    private final WordRepository wordRepository;
-
-    public Preload(WordRepository wordRepository) {
-        this.wordRepository = wordRepository;
-    }
 
     @Bean
-    CommandLineRunner initDatabase(UserRepository userRepository,
-                                   GlossaryRepository glossaryRepository) {
-
-        User u1 = User.builder()
-                .name("u1")
-                .password("password")
-                .build();
-        User u2 = User.builder()
-                .name("u2")
-                .password("password")
-                .build();
-        User u3 = User.builder()
-                .name("u3")
-                .password("password")
-                .build();
-
-        Glossary g1 = Glossary.builder()
-                .name("g1")
-                .user(u3)
-                .build();
-        Glossary g2 = Glossary.builder()
-                .name("g2")
-                .user(u3)
-                .build();
-
-        Word w1 = Word.builder()
-                .name("w1")
-                .glossary(g1)
-                .build();
-        Word w2 = Word.builder()
-                .name("w2")
-                .glossary(g1)
-                .build();
-        Word w3 = Word.builder()
-                .name("w3")
-                .glossary(g1)
-                .build();
-
+    CommandLineRunner initDatabase(DatasetGenerator datasetGenerator,
+                                   @Value("${flashcards.preload.users:1}") int users,
+                                   @Value("${flashcards.preload.glossaries-per-user:2}") int glossariesPerUser,
+                                   @Value("${flashcards.preload.words-per-glossary:3}") int wordsPerGlossary,
+                                   @Value("${flashcards.preload.password:password}") String password,
+                                   @Value("${flashcards.preload.seed:42}") long seed) {
         return args -> {
-            User savedU1 = userRepository.save(u1);
-            log.info("Preloading " + savedU1);
-            User savedU2 = userRepository.save(u2);
-            log.info("Preloading " + savedU2);
-            User savedU3 = userRepository.save(u3);
-            log.info("Preloading " + savedU3);
-
-            log.info("Preloading " + glossaryRepository.save(g1));
-            log.info("Preloading " + glossaryRepository.save(g2));
-
-            userRepository.deleteById(savedU1.getId());
-            log.info("Deleting the preloaded user with id " + savedU1.getId());
-            userRepository.deleteById(savedU2.getId());
-            log.info("Deleting the preloaded user with id " + savedU2.getId());
-
-            log.info("Preloading " + wordRepository.save(w1));
-            log.info("Preloading " + wordRepository.save(w2));
-            log.info("Preloading " + wordRepository.save(w3));
+            // the dev database is a file, it keeps the data of the last run
+            if (!datasetGenerator.empty()) {
+                return;
+            }
+            datasetGenerator.generate(new DatasetGenerator.Spec(users, glossariesPerUser, wordsPerGlossary, password, seed));
         };
     }
 }
@@ -0,0 +1,32 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.utils.QueryBudgetFilter;
+import com.example.FlashCards.utils.QueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryCounterConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    // flashcards.query-budget.enabled=true, max-statements=N, mode=log|fail
+    @Bean
+    @ConditionalOnProperty(name = "flashcards.query-budget.enabled", havingValue = "true")
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(QueryCounter queryCounter,
+                                                                       @Value("${flashcards.query-budget.max-statements:20}") int maxStatements,
+                                                                       @Value("${flashcards.query-budget.mode:log}") String mode) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(queryCounter, maxStatements, mode.equals("fail")));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.utils.RateLimitFilter;
+import com.example.FlashCards.utils.RateLimitFilter.EndpointClass;
+import com.example.FlashCards.utils.RateLimiter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// flashcards.rate-limit.enabled=true, {login,writes,reads}.per-second and .burst, ip-factor, max-keys, idle
+@Configuration
+@ConditionalOnProperty(name = "flashcards.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(Environment environment,
+                                                                   MeterRegistry meterRegistry,
+                                                                   @Value("${flashcards.rate-limit.ip-factor:5}") int ipFactor,
+                                                                   @Value("${flashcards.rate-limit.max-keys:1000000}") long maxKeys,
+                                                                   @Value("${flashcards.rate-limit.idle:10m}") Duration idle) {
+        Map<EndpointClass, RateLimiter.Limit> userLimits = new EnumMap<>(EndpointClass.class);
+        Map<EndpointClass, RateLimiter.Limit> ipLimits = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "flashcards.rate-limit." + endpointClass.name().toLowerCase();
+            double perSecond = environment.getRequiredProperty(prefix + ".per-second", Double.class);
+            int burst = environment.getRequiredProperty(prefix + ".burst", Integer.class);
+            userLimits.put(endpointClass, new RateLimiter.Limit(perSecond, burst));
+            // several users can share an address (NAT, office)
+            ipLimits.put(endpointClass, new RateLimiter.Limit(perSecond * ipFactor, burst * ipFactor));
+            // a bucket dropped before it is full again would hand out its burst once more
+            Duration fillTime = userLimits.get(endpointClass).fillTime();
+            if (fillTime.compareTo(idle) > 0) {
+                idle = fillTime;
+            }
+        }
+        RateLimiter rateLimiter = new RateLimiter(maxKeys, idle, Ticker.systemTicker());
+
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimiter, userLimits, ipLimits, meterRegistry));
+        registration.addUrlPatterns("/users/*", "/glossaries/*", "/words/*", "/reviews/*");
+        // after the observation filter, so 429s show up in http.server.requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.datasources.ReadWriteRoutingDataSource;
+import com.example.FlashCards.datasources.ReadYourWritesFilter;
+import com.example.FlashCards.datasources.ReplicaLagMonitor;
+import com.example.FlashCards.datasources.ReplicaReadAspect;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, only when flashcards.datasource.replica-urls is set (comma separated JDBC urls, same
+ * credentials as spring.datasource.*). Writes and most reads stay on the primary, see ReadWriteRoutingDataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "flashcards.datasource.replica-urls")
+public class RoutingDataSourceConfiguration {
+
+    // the pool Boot would have created, spring.datasource.hikari.* applies as before
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${flashcards.datasource.replica-urls}") List<String> urls,
+                                               @Value("${flashcards.datasource.replica-pool-size:20}") int poolSize,
+                                               @Value("${flashcards.datasource.replica-lag-query:}") String lagQuery,
+                                               @Value("${flashcards.datasource.replica-lag-column:}") String lagColumn,
+                                               @Value("${flashcards.datasource.max-replica-lag-seconds:5}") long maxLagSeconds) {
+        List<ReplicaLagMonitor.Replica> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setReadOnly(true);
+            // not beans, so Boot doesn't bind their hikaricp.* metrics
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaLagMonitor.Replica(dataSource.getPoolName(), dataSource));
+        }
+        return new ReplicaLagMonitor(replicas, lagQuery, lagColumn, Duration.ofSeconds(maxLagSeconds));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primaryDataSource);
+        replicaLagMonitor.replicas().forEach(replica -> targets.put(replica.key(), replica.dataSource()));
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${flashcards.datasource.sticky-primary-seconds:5}") long stickySeconds) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(Duration.ofSeconds(stickySeconds)));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.datasources.ShardDirectory;
+import com.example.FlashCards.datasources.ShardKeyAspect;
+import com.example.FlashCards.datasources.ShardRoutingDataSource;
+import com.example.FlashCards.utils.Sequences;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding by user, only when flashcards.sharding.shard-urls is set (comma separated JDBC urls, same credentials
+ * as spring.datasource.*, the first one is shard 0). Every shard has the whole schema and holds the users placed
+ * on it with all their data, see ShardDirectory. Not meant to be combined with read replicas.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "flashcards.sharding.shard-urls")
+public class ShardingConfiguration {
+
+    // the sequences of the ids that route, see ShardDirectory
+    static final List<String> SEQUENCES = List.of("users_seq", "glossaries_seq", "words_seq");
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${flashcards.sharding.shard-urls}") List<String> urls,
+                                                         @Value("${flashcards.sharding.pool-size:20}") int poolSize) {
+        List<HikariDataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(poolSize);
+            // not beans, so Boot doesn't bind their hikaricp.* metrics
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Boot's Flyway only sees shard 0 through the routing data source, every shard is migrated on its own
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (int i = 0; i < shardRoutingDataSource.count(); i++) {
+                DataSource shard = shardRoutingDataSource.shard(i);
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard)
+                        .load()
+                        .migrate();
+                try {
+                    reserveIds(shard, i);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not set the id range of shard " + i + ".", e);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public ShardKeyAspect shardKeyAspect(ShardDirectory shardDirectory) {
+        return new ShardKeyAspect(shardDirectory);
+    }
+
+    // moves the sequences of shard i up to its id range once, they only go up from there
+    private static void reserveIds(DataSource dataSource, int shard) throws SQLException {
+        if (shard == 0) {
+            return;
+        }
+        long start = ShardDirectory.firstId(shard) + Sequences.ALLOCATION_SIZE;
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sequence : SEQUENCES) {
+                if (Sequences.moveTo(connection, sequence, start)) {
+                    log.info("[Shard] {} of shard {} starts at {}", sequence, shard, start);
+                }
+            }
+        }
+    }
+}
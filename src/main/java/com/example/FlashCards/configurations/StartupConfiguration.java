@@ -0,0 +1,25 @@
+package com.example.FlashCards.configurations;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * For spring.main.lazy-initialization=true (faststart profile): beans are created on first use, except
+ * beans with @Scheduled methods, nothing would ever use them and their jobs would never be scheduled.
+ * Listeners of ApplicationReadyEvent, runners, filters and meter binders are created on start anyway.
+ */
+@Configuration
+public class StartupConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && AnnotationUtils.isCandidateClass(beanType, Scheduled.class)
+                && !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.FlashCards.controllers;
+
+import com.example.FlashCards.services.ExportService;
+import com.example.FlashCards.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+public class ExportController {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ExportService exportService;
+
+    // NDJSON of the user, their glossaries and words, gzipped when the client accepts it
+    @GetMapping(path = "/users/{userId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("userId") Long userId,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // a missing user is still a 404, once streaming has started the status is sent
+        userService.getUserById(userId);
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+                    exportService.export(userId, gzipOut);
+                }
+            } else {
+                exportService.export(userId, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user-" + userId + ".ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
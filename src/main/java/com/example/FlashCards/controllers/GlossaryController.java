@@ -1,13 +1,19 @@
 package com.example.FlashCards.controllers;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
 import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.caches.ResponseCache;
+import com.example.FlashCards.configurations.WireFormatConfiguration;
+import com.example.FlashCards.DTOs.SliceDTO;
+import com.example.FlashCards.services.Cursor;
 import com.example.FlashCards.services.GlossaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping(path = "/glossaries")
@@ -15,13 +21,39 @@ public class GlossaryController {
     @Autowired
     GlossaryService glossaryService;
 
+    @Autowired
+    ResponseCache responseCache;
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<GlossaryDTO>> getAllGlossaries(@PathVariable("userId") Long userId) {
-        return new ResponseEntity<>(glossaryService.getAllGlossaries(userId), HttpStatus.OK);
+    public ResponseEntity<SliceDTO<GlossaryDTO>> getAllGlossaries(@PathVariable("userId") Long userId,
+                                                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                                                  @RequestParam(value = "limit", defaultValue = Cursor.DEFAULT_LIMIT) int limit,
+                                                                  @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                                  WebRequest request) {
+        // the version is read before the list, so a client never keeps an old list under a new ETag
+        ListVersionDTO version = glossaryService.getGlossariesVersion(userId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;//304, the glossaries aren't read
+        }
+        return new ResponseEntity<>(glossaryService.getGlossaries(userId, cursor, limit, sort), HttpStatus.OK);
     }
 
     @GetMapping("/{glossaryId}")
-    public ResponseEntity<GlossaryDTO> getGlossary(@PathVariable("glossaryId") Long glossaryId) {
+    public ResponseEntity<byte[]> getGlossary(@PathVariable("glossaryId") Long glossaryId, WebRequest request) {
+        // served from the serialized JSON, no database, mapping or Jackson on a hit
+        ResponseCache.Response response = responseCache.glossary(glossaryId, () -> glossaryService.getGlossaryById(glossaryId));
+        if (request.checkNotModified(response.etag(), response.lastModified())) {
+            return null;
+        }
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.json());
+    }
+
+    // CBOR and Smile go through the message converters, the response cache only holds JSON
+    @GetMapping(path = "/{glossaryId}", produces = {MediaType.APPLICATION_CBOR_VALUE, WireFormatConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<GlossaryDTO> getGlossaryBinary(@PathVariable("glossaryId") Long glossaryId) {
         return new ResponseEntity<>(glossaryService.getGlossaryById(glossaryId), HttpStatus.OK);
     }
 
@@ -39,15 +71,25 @@ public class GlossaryController {
         return new ResponseEntity<>(updatedGlossaryDTO, HttpStatus.OK);
     }
 
+    // see WordController.patchWord
+    @PatchMapping("/{glossaryId}")
+    public ResponseEntity<Void> patchGlossary(@RequestBody GlossaryDTO glossaryDTO,
+                                              @PathVariable("glossaryId") Long glossaryId) {
+        glossaryService.patchGlossary(glossaryDTO, glossaryId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @DeleteMapping("/{glossaryId}")
     public ResponseEntity<String> deleteGlossary(@PathVariable("glossaryId") Long glossaryId) {
-        glossaryService.deleteGlossary(glossaryId);
-        return new ResponseEntity<>("Deleted glossary with id " + glossaryId, HttpStatus.OK);
+        DeleteResultDTO deleted = glossaryService.deleteGlossary(glossaryId);
+        return new ResponseEntity<>("Deleted glossary with id " + glossaryId
+                + " (" + deleted.getWords() + " words)", HttpStatus.OK);
     }
 
     @DeleteMapping("/user/{userId}")
     public ResponseEntity<String> deleteAllGlossaries(@PathVariable("userId") Long userId){
-        glossaryService.deleteAllGlossariesByUser(userId);
-        return new ResponseEntity<>("Deleted all glossaries from user with id " + userId, HttpStatus.OK);
+        DeleteResultDTO deleted = glossaryService.deleteAllGlossariesByUser(userId);
+        return new ResponseEntity<>("Deleted all glossaries from user with id " + userId
+                + " (" + deleted.getGlossaries() + " glossaries, " + deleted.getWords() + " words)", HttpStatus.OK);
     }
 }
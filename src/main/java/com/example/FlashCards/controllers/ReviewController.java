@@ -0,0 +1,65 @@
+package com.example.FlashCards.controllers;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.example.FlashCards.DTOs.ReviewCardDTO;
+import com.example.FlashCards.DTOs.ReviewDTO;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.ingest.AnswerWriter;
+import com.example.FlashCards.services.ReviewService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+public class ReviewController {
+
+    @Autowired
+    ReviewService reviewService;
+    @Autowired
+    AnswerWriter answerWriter;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // the cards to study next, the longest overdue first
+    @GetMapping("/users/{userId}/due")
+    public ResponseEntity<List<ReviewCardDTO>> getDueCards(@PathVariable("userId") Long userId,
+                                                           @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(reviewService.getDueCards(userId, limit), HttpStatus.OK);
+    }
+
+    @PostMapping("/reviews")
+    public ResponseEntity<ReviewCardDTO> answer(@RequestBody ReviewDTO reviewDTO) {
+        return new ResponseEntity<>(reviewService.answer(reviewDTO), HttpStatus.OK);
+    }
+
+    // One answer or an array of them, acknowledged with 202 once in the local journal and written to the
+    // database in batches (AnswerWriter). 503 when the writer is behind, try again after Retry-After seconds.
+    @PostMapping("/reviews/answers")
+    public ResponseEntity<List<AnswerEventDTO>> submitAnswers(@RequestBody JsonNode body) throws IOException {
+        List<AnswerEventDTO> events;
+        try {
+            events = body.isArray()
+                    ? objectMapper.convertValue(body, new TypeReference<List<AnswerEventDTO>>() {
+                    })
+                    : List.of(objectMapper.treeToValue(body, AnswerEventDTO.class));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidRequestException("Expected an answer or a JSON array of answers.");
+        }
+        if (!answerWriter.submit(events)) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(events, HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.FlashCards.controllers;
+
+import com.example.FlashCards.DTOs.WordHitDTO;
+import com.example.FlashCards.services.WordService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+public class SearchController {
+
+    @Autowired
+    WordService wordService;
+
+    @GetMapping("/users/{userId}/words/search")
+    public ResponseEntity<List<WordHitDTO>> searchWords(@PathVariable("userId") Long userId,
+                                                        @RequestParam("q") String query,
+                                                        @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(wordService.searchWords(userId, query, limit), HttpStatus.OK);
+    }
+}
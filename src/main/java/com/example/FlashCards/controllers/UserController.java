@@ -1,6 +1,11 @@
 package com.example.FlashCards.controllers;
 
+import com.example.FlashCards.DTOs.ChangesDTO;
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.services.ChangeLogService;
+import com.example.FlashCards.services.Cursor;
 import com.example.FlashCards.services.UserService;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping(path = "/users")
 public class UserController {
@@ -17,9 +20,14 @@ public class UserController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    ChangeLogService changeLogService;
+
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return new ResponseEntity<>(userService.getAllUsers(), HttpStatus.OK);
+    public ResponseEntity<SliceDTO<UserDTO>> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "limit", defaultValue = Cursor.DEFAULT_LIMIT) int limit,
+                                                         @RequestParam(value = "sort", defaultValue = "id") String sort) {
+        return new ResponseEntity<>(userService.getUsers(cursor, limit, sort), HttpStatus.OK);
     }
 
     @GetMapping("/{userId}")
@@ -27,6 +35,14 @@ public class UserController {
         return new ResponseEntity<>(userService.getUserById(userId), HttpStatus.OK);
     }
 
+    // changes to glossaries and words after the token of the last call, see ChangeLogService
+    @GetMapping("/{userId}/changes")
+    public ResponseEntity<ChangesDTO> getChanges(@PathVariable("userId") Long userId,
+                                                 @RequestParam(value = "since", required = false) String since,
+                                                 @RequestParam(value = "limit", defaultValue = Cursor.DEFAULT_LIMIT) int limit) {
+        return new ResponseEntity<>(changeLogService.getChanges(userId, since, limit), HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<UserDTO> addUser(@RequestBody UserDTO userDTO) {
         return new ResponseEntity<>(userService.add(userDTO), HttpStatus.CREATED);
@@ -64,9 +80,17 @@ public class UserController {
         return new ResponseEntity<>(userService.updateUser(userDTO, id), HttpStatus.OK);
     }
 
+    // renames only, see WordController.patchWord
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchUser(@RequestBody UserDTO userDTO, @PathVariable("id") Long id) {
+        userService.patchUser(userDTO, id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteUser(@PathVariable("id") Long id) {
-        userService.deleteById(id);
-        return new ResponseEntity<>("Deleted use with id " + id, HttpStatus.OK);
+        DeleteResultDTO deleted = userService.deleteById(id);
+        return new ResponseEntity<>("Deleted use with id " + id
+                + " (" + deleted.getGlossaries() + " glossaries, " + deleted.getWords() + " words)", HttpStatus.OK);
     }
 }
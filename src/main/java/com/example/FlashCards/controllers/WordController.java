@@ -1,13 +1,24 @@
 package com.example.FlashCards.controllers;
 
+import com.example.FlashCards.DTOs.BulkImportResultDTO;
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.caches.ResponseCache;
+import com.example.FlashCards.configurations.WireFormatConfiguration;
+import com.example.FlashCards.services.Cursor;
+import com.example.FlashCards.services.WordImportService;
 import com.example.FlashCards.services.WordService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/words")
@@ -16,13 +27,41 @@ public class WordController {
     @Autowired
     WordService wordService;
 
+    @Autowired
+    WordImportService wordImportService;
+
+    @Autowired
+    ResponseCache responseCache;
+
     @GetMapping("/glossary/{glossaryId}")
-    public ResponseEntity<List<WordDTO>> getAllWords(@PathVariable("glossaryId") Long glossaryId) {
-        return new ResponseEntity<>(wordService.getAllWords(glossaryId), HttpStatus.OK);
+    public ResponseEntity<SliceDTO<WordDTO>> getAllWords(@PathVariable("glossaryId") Long glossaryId,
+                                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "limit", defaultValue = Cursor.DEFAULT_LIMIT) int limit,
+                                                         @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                         WebRequest request) {
+        // see GlossaryController.getAllGlossaries
+        ListVersionDTO version = wordService.getWordsVersion(glossaryId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return new ResponseEntity<>(wordService.getWords(glossaryId, cursor, limit, sort), HttpStatus.OK);
     }
 
     @GetMapping("/{wordId}")
-    public ResponseEntity<WordDTO> getWord(@PathVariable("wordId") Long wordId) {
+    public ResponseEntity<byte[]> getWord(@PathVariable("wordId") Long wordId, WebRequest request) {
+        ResponseCache.Response response = responseCache.word(wordId, () -> wordService.getWordById(wordId));
+        if (request.checkNotModified(response.etag(), response.lastModified())) {
+            return null;
+        }
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.json());
+    }
+
+    // CBOR and Smile go through the message converters, the response cache only holds JSON
+    @GetMapping(path = "/{wordId}", produces = {MediaType.APPLICATION_CBOR_VALUE, WireFormatConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<WordDTO> getWordBinary(@PathVariable("wordId") Long wordId) {
         return new ResponseEntity<>(wordService.getWordById(wordId), HttpStatus.OK);
     }
 
@@ -32,6 +71,13 @@ public class WordController {
         return new ResponseEntity<>(wordService.addWord(glossaryId, wordDTO), HttpStatus.CREATED);
     }
 
+    // the body is read straight from the request stream instead of being bound to a List<WordDTO>
+    @PostMapping(path = "/glossary/{glossaryId}/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResultDTO> importWords(@PathVariable("glossaryId") Long glossaryId,
+                                                           HttpServletRequest request) throws IOException {
+        return new ResponseEntity<>(wordImportService.importWords(glossaryId, request.getInputStream()), HttpStatus.OK);
+    }
+
     @PutMapping("/{wordId}")
     public ResponseEntity<WordDTO> updateWord(@RequestBody WordDTO wordDTO,
                                               @PathVariable("wordId") Long wordId) {
@@ -39,6 +85,14 @@ public class WordController {
         return new ResponseEntity<>(updatedWord, HttpStatus.OK);
     }
 
+    // {"name": ..., "version": ...}: 204, 409 when the word changed since the client read that version
+    @PatchMapping("/{wordId}")
+    public ResponseEntity<Void> patchWord(@RequestBody WordDTO wordDTO,
+                                          @PathVariable("wordId") Long wordId) {
+        wordService.patchWord(wordDTO, wordId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @DeleteMapping("/{wordId}")
     public ResponseEntity<String> deleteWord(@PathVariable("wordId") Long wordId) {
         wordService.deleteWord(wordId);
@@ -47,7 +101,8 @@ public class WordController {
 
     @DeleteMapping("/glossary/{glossaryId}")
     public ResponseEntity<String> deleteAllWords(@PathVariable("glossaryId") Long glossaryId) {
-        wordService.deleteAllWordInGlossary(glossaryId);
-        return new ResponseEntity<>("Deleted all words in glossary with id " + glossaryId, HttpStatus.OK);
+        DeleteResultDTO deleted = wordService.deleteAllWordInGlossary(glossaryId);
+        return new ResponseEntity<>("Deleted all words in glossary with id " + glossaryId
+                + " (" + deleted.getWords() + " words)", HttpStatus.OK);
     }
 }
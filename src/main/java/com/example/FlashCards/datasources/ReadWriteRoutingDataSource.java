@@ -0,0 +1,49 @@
+package com.example.FlashCards.datasources;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends a connection to a replica when all of these hold, otherwise to the primary:
+ * <ul>
+ *     <li>the transaction is readOnly and was started by a @ReplicaRead method,</li>
+ *     <li>the request isn't sticky to the primary after a write of the same client (ReadYourWritesFilter),</li>
+ *     <li>a replica is within the allowed lag (ReplicaLagMonitor).</li>
+ * </ul>
+ * Has to sit behind a LazyConnectionDataSourceProxy: the JPA transaction manager takes the connection
+ * before the transaction is marked readOnly, the proxy delays that until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> replicaRead = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> stickyPrimary = ThreadLocal.withInitial(() -> false);
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaRead.get() || stickyPrimary.get() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaLagMonitor.nextReplica().orElse(PRIMARY);
+    }
+
+    // both return the previous value, so nested calls can restore it
+    static boolean setReplicaRead(boolean value) {
+        boolean previous = replicaRead.get();
+        replicaRead.set(value);
+        return previous;
+    }
+
+    static boolean setStickyPrimary(boolean value) {
+        boolean previous = stickyPrimary.get();
+        stickyPrimary.set(value);
+        return previous;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.FlashCards.datasources;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Read-your-writes: a client that just wrote reads from the primary for sticky-primary-seconds, so it doesn't
+ * miss its own change on a replica that is behind. Kept in a short-lived cookie, nothing is stored on the server.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "flashcards-primary";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean write = !(method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS"));
+        if (write) {
+            // before the chain, the response may be committed afterwards
+            Cookie cookie = new Cookie(COOKIE, "1");
+            cookie.setMaxAge((int) window.toSeconds());
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        boolean sticky = write || (request.getCookies() != null && Arrays.stream(request.getCookies())
+                .anyMatch(cookie -> cookie.getName().equals(COOKIE)));
+
+        boolean outer = ReadWriteRoutingDataSource.setStickyPrimary(sticky);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.setStickyPrimary(outer);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.FlashCards.datasources;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asks every replica for its lag and keeps the ones within max-replica-lag-seconds, reads are spread over
+ * those round robin. A replica that is too far behind, not replicating or not reachable gets no reads until
+ * a later check finds it back in sync; with none left every read goes to the primary.
+ * <p>
+ * The lag comes from replica-lag-query (for MySQL {@code SHOW REPLICA STATUS}, column Seconds_Behind_Source),
+ * without a query a replica only has to accept connections.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    public record Replica(String key, DataSource dataSource) {
+    }
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final Duration maxLag;
+
+    // keys of the replicas in sync as of the last check, replaced as a whole
+    private volatile List<String> inSync = List.of();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaLagMonitor(List<Replica> replicas, String lagQuery, String lagColumn, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${flashcards.datasource.replica-check-interval-ms:2000}")
+    public void check() {
+        List<String> current = inSync;
+        List<String> checked = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            Duration lag = lag(replica);
+            boolean ok = lag != null && lag.compareTo(maxLag) <= 0;
+            if (ok) {
+                checked.add(replica.key());
+            }
+            if (ok != current.contains(replica.key())) {
+                log.warn("[Replica] {} {}, lag {}", replica.key(), ok ? "back in sync" : "out of rotation",
+                        lag == null ? "unknown" : lag);
+            }
+        }
+        inSync = List.copyOf(checked);
+    }
+
+    public Optional<String> nextReplica() {
+        List<String> current = inSync;
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(current.get(Math.floorMod(next.getAndIncrement(), current.size())));
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    public List<String> inSync() {
+        return inSync;
+    }
+
+    // the replica pools aren't beans, they go with the monitor
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // null when the replica can't tell
+    private Duration lag(Replica replica) {
+        try (Connection connection = replica.dataSource().getConnection()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return connection.isValid(1) ? Duration.ZERO : null;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(1);
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (!resultSet.next()) {
+                        return null;//no replication configured
+                    }
+                    long seconds = lagColumn == null || lagColumn.isBlank()
+                            ? resultSet.getLong(1)
+                            : resultSet.getLong(lagColumn);
+                    return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("[Replica] {} lag check failed", replica.key(), e);
+            return null;
+        }
+    }
+}
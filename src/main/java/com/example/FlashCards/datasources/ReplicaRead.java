@@ -0,0 +1,16 @@
+package com.example.FlashCards.datasources;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A readOnly service method that may read from a replica when replicas are configured
+ * (flashcards.datasource.replica-urls). Only the reads that can live with a few seconds of lag are marked,
+ * readOnly alone isn't enough: Spring Data runs every plain repository find as a readOnly transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -0,0 +1,20 @@
+package com.example.FlashCards.datasources;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+// marks the thread for ReadWriteRoutingDataSource while a @ReplicaRead method runs
+@Aspect
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.example.FlashCards.datasources.ReplicaRead)")
+    public Object replicaRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean outer = ReadWriteRoutingDataSource.setReplicaRead(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.setReplicaRead(outer);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.FlashCards.datasources;
+
+import com.example.FlashCards.exceptions.NotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Where the data of a user lives, everything of a user (glossaries, words, cards) is on the user's shard.
+ * <p>
+ * Ids carry their shard: the sequences of shard i start at i << ID_SHIFT (ShardingConfiguration), so a user,
+ * glossary or word id routes without a lookup. A new user is placed by name, hashed or by ranges of names
+ * (flashcards.sharding.strategy=range with flashcards.sharding.name-bounds, the first name of every shard
+ * after the first). Without flashcards.sharding.shard-urls there is one shard.
+ */
+@Component
+public class ShardDirectory {
+
+    // 2^48 ids per shard
+    public static final int ID_SHIFT = 48;
+
+    public enum Strategy {HASH, RANGE}
+
+    private final int count;
+    private final Strategy strategy;
+    private final List<String> nameBounds;
+
+    public ShardDirectory(@Value("${flashcards.sharding.shard-urls:}") List<String> urls,
+                          @Value("${flashcards.sharding.strategy:hash}") String strategy,
+                          @Value("${flashcards.sharding.name-bounds:}") List<String> nameBounds) {
+        this.count = Math.max(1, urls.size());
+        this.strategy = Strategy.valueOf(strategy.trim().toUpperCase());
+        this.nameBounds = nameBounds.stream().map(String::trim).toList();
+        if (this.strategy == Strategy.RANGE && this.nameBounds.size() != count - 1) {
+            throw new IllegalStateException("flashcards.sharding.name-bounds needs " + (count - 1) + " names for "
+                    + count + " shards, got " + this.nameBounds.size() + ".");
+        }
+        for (int i = 1; i < this.nameBounds.size(); i++) {
+            if (this.nameBounds.get(i - 1).compareTo(this.nameBounds.get(i)) >= 0) {
+                throw new IllegalStateException("flashcards.sharding.name-bounds must be in ascending order.");
+            }
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean sharded() {
+        return count > 1;
+    }
+
+    public int shardOfId(long id) {
+        long shard = id >>> ID_SHIFT;
+        if (shard >= count) {
+            throw new NotFoundException("No shard for id " + id + ".");
+        }
+        return (int) shard;
+    }
+
+    // the shard a new user with this name goes to, renamed users stay where they are
+    public int shardOfName(String name) {
+        if (strategy == Strategy.HASH) {
+            // String.hashCode is fixed by the spec, the same on every instance and release
+            return Math.floorMod(name.hashCode(), count);
+        }
+        for (int i = 0; i < nameBounds.size(); i++) {
+            if (name.compareTo(nameBounds.get(i)) < 0) {
+                return i;
+            }
+        }
+        return count - 1;
+    }
+
+    public static long firstId(int shard) {
+        return (long) shard << ID_SHIFT;
+    }
+}
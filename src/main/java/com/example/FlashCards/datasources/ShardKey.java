@@ -0,0 +1,17 @@
+package com.example.FlashCards.datasources;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The parameter that picks the shard of a call (ShardKeyAspect): a user, glossary or word id, the shard is
+ * part of the id, or a user name (ShardDirectory.shardOfName). On a DTO the value names the property to use,
+ * e.g. {@code @ShardKey("name") UserDTO userDTO}. Only has an effect with flashcards.sharding.shard-urls set.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+    String value() default "";
+}
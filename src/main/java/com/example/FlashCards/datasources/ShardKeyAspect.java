@@ -0,0 +1,64 @@
+package com.example.FlashCards.datasources;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.annotation.Annotation;
+
+// sets the shard of the @ShardKey parameter for ShardRoutingDataSource while the method runs,
+// outside of @Transactional so the transaction starts on that shard
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardKeyAspect {
+
+    private final ShardDirectory shardDirectory;
+
+    public ShardKeyAspect(ShardDirectory shardDirectory) {
+        this.shardDirectory = shardDirectory;
+    }
+
+    @Around("execution(* com.example.FlashCards..*(.., @com.example.FlashCards.datasources.ShardKey (*), ..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Integer shard = shardOf(joinPoint);
+        if (shard == null) {
+            return joinPoint.proceed();
+        }
+        int outer = ShardRoutingDataSource.setShard(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardRoutingDataSource.setShard(outer);
+        }
+    }
+
+    // null when the key is missing or routes nowhere, the method rejects that itself
+    private Integer shardOf(ProceedingJoinPoint joinPoint) {
+        Annotation[][] annotations = ((MethodSignature) joinPoint.getSignature()).getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    Object key = shardKey.value().isEmpty() || args[i] == null
+                            ? args[i]
+                            : new BeanWrapperImpl(args[i]).getPropertyValue(shardKey.value());
+                    if (key instanceof Long id) {
+                        // an id of no shard exists nowhere, the method looks on shard 0 and says so itself
+                        return id >>> ShardDirectory.ID_SHIFT < shardDirectory.count()
+                                ? shardDirectory.shardOfId(id)
+                                : null;
+                    }
+                    if (key instanceof String name) {
+                        return shardDirectory.shardOfName(name);
+                    }
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.FlashCards.datasources;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * K-way merge of sorted, paged sources, e.g. one per shard. A source loads its next page (given the last row
+ * it returned, null at first) only once the merge has used up the previous one, so at most one page per source
+ * is in memory. A page shorter than the page size is the last one of its source.
+ */
+class ShardMergeIterator<T> implements Iterator<T> {
+
+    private final class Source {
+        final Function<T, List<T>> nextPage;
+        Iterator<T> page = Collections.emptyIterator();
+        boolean lastPage;
+        T head;
+
+        Source(Function<T, List<T>> nextPage) {
+            this.nextPage = nextPage;
+        }
+
+        // moves head to the next row, false when the source is used up
+        boolean advance() {
+            if (!page.hasNext() && !lastPage) {
+                List<T> rows = nextPage.apply(head);
+                lastPage = rows.size() < pageSize;
+                page = rows.iterator();
+            }
+            if (!page.hasNext()) {
+                return false;
+            }
+            head = page.next();
+            return true;
+        }
+    }
+
+    private final int pageSize;
+    private final PriorityQueue<Source> heads;
+
+    ShardMergeIterator(Comparator<? super T> order, int pageSize, List<Function<T, List<T>>> sources) {
+        this.pageSize = pageSize;
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.head, b.head));
+        for (Function<T, List<T>> nextPage : sources) {
+            Source source = new Source(nextPage);
+            if (source.advance()) {
+                heads.add(source);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Source source = heads.poll();
+        if (source == null) {
+            throw new NoSuchElementException();
+        }
+        T next = source.head;
+        if (source.advance()) {
+            heads.add(source);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.FlashCards.datasources;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connections of the shard set for the thread (ShardKeyAspect, Shards), shard 0 when none is set.
+ * Sits behind a LazyConnectionDataSourceProxy like ReadWriteRoutingDataSource, the shard only has to be
+ * known by the first statement of a transaction.
+ */
+@Slf4j
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> shard = ThreadLocal.withInitial(() -> 0);
+
+    private final List<? extends DataSource> shards;
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        this.shards = shards;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer current = shard.get();
+        log.debug("[Shard] connection from shard {}", current);
+        return current;
+    }
+
+    public DataSource shard(int index) {
+        return shards.get(index);
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    // returns the previous shard, so nested calls can restore it
+    static int setShard(int value) {
+        int previous = shard.get();
+        shard.set(value);
+        return previous;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : shards) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.FlashCards.datasources;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Work on other shards than the one of the current call: on one shard, on all of them, or a merge of sorted
+ * pages from all of them. Every shard gets its own transaction (REQUIRES_NEW, a transaction stays on the shard
+ * it started on). With a single shard everything just runs in the caller's transaction.
+ */
+@Component
+public class Shards {
+
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate readWrite;
+
+    public Shards(ShardDirectory shardDirectory, PlatformTransactionManager transactionManager) {
+        this.shardDirectory = shardDirectory;
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        readWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean sharded() {
+        return shardDirectory.sharded();
+    }
+
+    public int count() {
+        return shardDirectory.count();
+    }
+
+    public int shardOfId(long id) {
+        return shardDirectory.shardOfId(id);
+    }
+
+    // sets the shard only, for work that starts its own transaction (a @Transactional service method)
+    public <T> T on(int shard, Supplier<T> work) {
+        int outer = ShardRoutingDataSource.setShard(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardRoutingDataSource.setShard(outer);
+        }
+    }
+
+    // readOnly on every shard, results in shard order
+    public <T> List<T> query(Supplier<T> work) {
+        return each(readOnly, work);
+    }
+
+    public <T> List<T> execute(Supplier<T> work) {
+        return each(readWrite, work);
+    }
+
+    // rows of all shards in the given order, nextPage gets the last row of the previous page (null at first)
+    public <T> Iterator<T> merge(Comparator<? super T> order, int pageSize, Function<T, List<T>> nextPage) {
+        List<Function<T, List<T>>> sources = new ArrayList<>(shardDirectory.count());
+        for (int i = 0; i < shardDirectory.count(); i++) {
+            int shard = i;
+            sources.add(last -> run(shard, readOnly, () -> nextPage.apply(last)));
+        }
+        return new ShardMergeIterator<>(order, pageSize, sources);
+    }
+
+    private <T> List<T> each(TransactionTemplate template, Supplier<T> work) {
+        if (!sharded()) {
+            return Collections.singletonList(work.get());
+        }
+        List<T> results = new ArrayList<>(shardDirectory.count());
+        for (int i = 0; i < shardDirectory.count(); i++) {
+            results.add(run(i, template, work));
+        }
+        return results;
+    }
+
+    private <T> T run(int shard, TransactionTemplate template, Supplier<T> work) {
+        if (!sharded()) {
+            return work.get();
+        }
+        return on(shard, () -> template.execute(status -> work.get()));
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -11,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Slf4j
 @MappedSuperclass
@@ -22,8 +24,10 @@ import java.time.Instant;
 @SuperBuilder
 public abstract class AbstractEntity implements Serializable {
 
+    // Unique per glossary (words), per user (glossaries) or overall (users). The schema comes from the
+    // migrations in db/migration, the constraints and indexes on the entities only mirror them.
     @NotNull
-    @Column(name = "name", unique = true)
+    @Column(name = "name")
     private String name;
 
     @NotNull
@@ -34,16 +38,23 @@ public abstract class AbstractEntity implements Serializable {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // Optimistic locking: PUT checks it between its own read and write, PATCH sends the version it read and the
+    // conditional update in the repository bumps it. The JPQL bumps of list versions and counters leave it alone.
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 
+
+    // the columns keep microseconds, a saved entity shows the same time as the one read back later
     @PrePersist
     public void prePersist() {
-        Instant now = Instant.now();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
         setCreatedAt(now);
         setUpdatedAt(now);
     }
 
     @PreUpdate
     public void preUpdate() {
-        setUpdatedAt(Instant.now());
+        setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
     }
 }
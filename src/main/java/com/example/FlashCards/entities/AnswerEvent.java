@@ -0,0 +1,67 @@
+package com.example.FlashCards.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One answer to a card, as submitted to POST /reviews/answers and written by AnswerWriter.
+ * <p>
+ * Insert only. Word and user are plain ids, the writer never needs the entities; the rows go away with
+ * their word or user in the database (ON DELETE CASCADE).
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "answer_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_answer_events_event_id", columnNames = "event_id"),
+        indexes = @Index(name = "idx_answer_events_user_answered", columnList = "user_id, answered_at"))
+public class AnswerEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answer_events_seq")
+    @SequenceGenerator(name = "answer_events_seq", sequenceName = "answer_events_seq", allocationSize = 50)
+    @Column(name = "answer_id", nullable = false, updatable = false)
+    private Long id;
+
+    // assigned when the answer is accepted (or by the client), the same answer replayed from the journal is skipped
+    @NotNull
+    @Column(name = "event_id", length = 36, nullable = false, updatable = false)
+    private String eventId;
+
+    @NotNull
+    @Column(name = "word_id", nullable = false, updatable = false)
+    private Long wordId;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(name = "grade", nullable = false, updatable = false)
+    private int grade;
+
+    @NotNull
+    @Column(name = "answered_at", nullable = false, updatable = false)
+    private Instant answeredAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        AnswerEvent answerEvent = (AnswerEvent) o;
+        return id != null && Objects.equals(id, answerEvent.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.FlashCards.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One change of a user (the name), or of a glossary or word of the user, written by ChangeLogService in the transaction of the change.
+ * seq counts up per user (User.changeSeq) in commit order.
+ * <p>
+ * Insert only, the ids are assigned: isNew() is always true until loaded, so saveAll inserts in a batch
+ * instead of selecting every row first. Rows go away with their user (ON DELETE CASCADE) or by ChangeLogCompactor.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(ChangeLogEntry.Key.class)
+@Table(name = "change_log",
+        // ChangeLogCompactor finds the users to compact by time
+        indexes = @Index(name = "idx_change_log_changed", columnList = "changed_at, user_id"))
+public class ChangeLogEntry implements Persistable<ChangeLogEntry.Key> {
+
+    // USER: UPSERT when the user is renamed, CLEAR as the scope of all glossaries
+    public enum EntityType {USER, GLOSSARY, WORD}
+
+    // DELETE of a glossary takes its words along, CLEAR deletes the words of a glossary or the glossaries of a user
+    public enum Op {UPSERT, DELETE, CLEAR}
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long seq;
+    }
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "seq", nullable = false, updatable = false)
+    private Long seq;
+
+    // plain varchar, not the native enum of MySQL
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "entity", length = 16, nullable = false, updatable = false)
+    private EntityType entity;
+
+    @NotNull
+    @Column(name = "entity_id", nullable = false, updatable = false)
+    private Long entityId;
+
+    // glossary of a word
+    @Column(name = "glossary_id", updatable = false)
+    private Long glossaryId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "op", length = 16, nullable = false, updatable = false)
+    private Op op;
+
+    @NotNull
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private Instant changedAt;
+
+    @Transient
+    @Builder.Default
+    @ToString.Exclude
+    private boolean loaded = false;
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(userId, seq);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+
+    public static ChangeLogEntry glossary(Long glossaryId, Op op, Instant changedAt) {
+        return of(EntityType.GLOSSARY, glossaryId, null, op, changedAt);
+    }
+
+    public static ChangeLogEntry word(Long wordId, Long glossaryId, Op op, Instant changedAt) {
+        return of(EntityType.WORD, wordId, glossaryId, op, changedAt);
+    }
+
+    // UPSERT of the user itself, CLEAR of all glossaries of the user
+    public static ChangeLogEntry user(Long userId, Op op, Instant changedAt) {
+        return of(EntityType.USER, userId, null, op, changedAt);
+    }
+
+    private static ChangeLogEntry of(EntityType entity, Long entityId, Long glossaryId, Op op, Instant changedAt) {
+        return ChangeLogEntry.builder()
+                .entity(entity)
+                .entityId(entityId)
+                .glossaryId(glossaryId)
+                .op(op)
+                .changedAt(changedAt)
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChangeLogEntry entry)) return false;
+        return userId != null && seq != null && userId.equals(entry.userId) && seq.equals(entry.seq);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
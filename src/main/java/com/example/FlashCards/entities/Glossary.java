@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 
@@ -16,13 +18,20 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
-@Table(name = "glossaries")
+@Table(name = "glossaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_glossaries_user_name", columnNames = {"user_id", "name"}),
+        indexes = {
+                // keyset pages of a user's glossaries, ordered by id or by (updated_at, id), the rows are read from the table
+                @Index(name = "idx_glossaries_user_id", columnList = "user_id, glossary_id"),
+                @Index(name = "idx_glossaries_user_updated", columnList = "user_id, updated_at, glossary_id")
+        })
 // Eager fetch User in Glossary. @Transactional in Service classes should be enough to avoid
 // LazyInitializationException, but the repository methods can also be called more than once in tests.
 @NamedEntityGraph(name = "Glossary.user", attributeNodes = @NamedAttributeNode("user"))
 public class Glossary extends AbstractEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "glossaries_seq")
+    @SequenceGenerator(name = "glossaries_seq", sequenceName = "glossaries_seq", allocationSize = 50)
     @Column(name = "glossary_id", nullable = false, updatable = false)
     private Long id;
 
@@ -32,6 +41,24 @@ public class Glossary extends AbstractEntity {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // ETag/Last-Modified of GET /words/glossary/{id}. Only ever written by the JPQL update in
+    // GlossaryRepository.bumpWordsVersion, on every change to a word of the glossary or to what the words embed.
+    @ColumnDefault("0")
+    @Column(name = "words_version", nullable = false, insertable = false, updatable = false)
+    private long wordsVersion;
+
+    @Column(name = "words_modified_at", insertable = false, updatable = false)
+    private Instant wordsModifiedAt;
+
+    // Counters for the dashboards, only written by the JPQL updates in GlossaryRepository: in the transaction
+    // of every word change (bumpWordsVersion) and by CounterReconciler (repairWordCounts).
+    @ColumnDefault("0")
+    @Column(name = "word_count", nullable = false, insertable = false, updatable = false)
+    private long wordCount;
+
+    @Column(name = "last_activity_at", insertable = false, updatable = false)
+    private Instant lastActivityAt;
+
     @ToString.Exclude
     @OneToMany(mappedBy = "glossary", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Word> words;
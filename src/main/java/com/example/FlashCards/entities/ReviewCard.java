@@ -0,0 +1,95 @@
+package com.example.FlashCards.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Scheduling state of a word (SM-2), one card per word.
+ * <p>
+ * The user is copied onto the card so "due cards of a user" is a range scan of the (user_id, due_at) index,
+ * without going through glossaries and words. Cards go away with their word or user in the database
+ * (ON DELETE CASCADE), the services and the cascades from User and Glossary don't need to know about them.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "review_cards", indexes = {
+        @Index(name = "idx_review_cards_user_due", columnList = "user_id, due_at")
+})
+public class ReviewCard {
+
+    public static final double INITIAL_EASE = 2.5;
+
+    // same id as the word
+    @Id
+    @Column(name = "word_id", nullable = false, updatable = false)
+    private Long wordId;
+
+    @NotNull
+    @ToString.Exclude
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "word_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Word word;
+
+    @NotNull
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @NotNull
+    @Column(name = "due_at", nullable = false)
+    private Instant dueAt;
+
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+
+    @Column(name = "ease", nullable = false)
+    private double ease;
+
+    @Column(name = "repetitions", nullable = false)
+    private int repetitions;
+
+    @Column(name = "lapses", nullable = false)
+    private int lapses;
+
+    @Column(name = "last_reviewed_at")
+    private Instant lastReviewedAt;
+
+    // a new word is due right away
+    public static ReviewCard of(Word word, User user, Instant now) {
+        return ReviewCard.builder()
+                .word(word)
+                .user(user)
+                .dueAt(now)
+                .ease(INITIAL_EASE)
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ReviewCard reviewCard = (ReviewCard) o;
+        return wordId != null && Objects.equals(wordId, reviewCard.wordId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 
@@ -16,10 +18,13 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder //access fields in parent class
-@Table(name = "users")//in SQL/H2 User is a reserved keyword.
+@Table(name = "users", //in SQL/H2 User is a reserved keyword.
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_name", columnNames = "name"),
+        indexes = @Index(name = "idx_users_updated", columnList = "updated_at, user_id"))
 public class User extends AbstractEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id", nullable = false, updatable = false)
     private Long id;
 
@@ -27,6 +32,31 @@ public class User extends AbstractEntity {
     @Column(name = "password")
     private String password;
 
+    // ETag/Last-Modified of GET /glossaries/user/{id}, see Glossary.wordsVersion
+    @ColumnDefault("0")
+    @Column(name = "glossaries_version", nullable = false, insertable = false, updatable = false)
+    private long glossariesVersion;
+
+    @Column(name = "glossaries_modified_at", insertable = false, updatable = false)
+    private Instant glossariesModifiedAt;
+
+    // see Glossary.wordCount, written by UserRepository.bumpGlossariesVersion and advanceChangeSeq
+    @ColumnDefault("0")
+    @Column(name = "glossary_count", nullable = false, insertable = false, updatable = false)
+    private long glossaryCount;
+
+    @Column(name = "last_activity_at", insertable = false, updatable = false)
+    private Instant lastActivityAt;
+
+    // last sequence number of the change log, and the last one compacted away, see ChangeLogService
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private long changeSeq;
+
+    @ColumnDefault("0")
+    @Column(name = "compacted_seq", nullable = false, insertable = false, updatable = false)
+    private long compactedSeq;
+
     @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Glossary> glossaries;
@@ -15,12 +15,23 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
-@Table(name = "words")
-@NamedEntityGraph(name = "Word.glossary", attributeNodes = @NamedAttributeNode("glossary"))
+@Table(name = "words",
+        uniqueConstraints = @UniqueConstraint(name = "uk_words_glossary_name", columnNames = {"glossary_id", "name"}),
+        indexes = {
+                // keyset pages of a glossary, ordered by id or by (updated_at, id), the rows are read from the table
+                @Index(name = "idx_words_glossary_id", columnList = "glossary_id, word_id"),
+                @Index(name = "idx_words_glossary_updated", columnList = "glossary_id, updated_at, word_id")
+        })
+// with the glossary's user as well, the DTO of a word embeds both
+@NamedEntityGraph(name = "Word.glossary",
+        attributeNodes = @NamedAttributeNode(value = "glossary", subgraph = "Word.glossary.user"),
+        subgraphs = @NamedSubgraph(name = "Word.glossary.user", attributeNodes = @NamedAttributeNode("user")))
 public class Word extends AbstractEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // sequence ids (pooled, 50 per round trip) so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "words_seq")
+    @SequenceGenerator(name = "words_seq", sequenceName = "words_seq", allocationSize = 50)
     @Column(name = "word_id", nullable = false, updatable = false)
     private Long id;
 
@@ -0,0 +1,12 @@
+package com.example.FlashCards.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// thrown by QueryCounter in fail mode, an N+1 regression should show up in tests and staging, not in the logs only
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.FlashCards.ingest;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only journal of accepted answers, one JSON object per line in numbered segment files.
+ * <p>
+ * An answer is acknowledged once it is in the journal (fsync'd unless flashcards.answers.fsync=false).
+ * {@link #write} and {@link #sync} are apart so that appends written while a force runs share the next one
+ * (group commit), {@link #append} does both.
+ * After a batch is in the database the writer commits its end position to the checkpoint file, and segments
+ * before the checkpoint are deleted. A restart replays everything after the checkpoint; answers of the last
+ * batch before a crash may come again, they are skipped by event id.
+ * <p>
+ * Every run appends to a new segment, a torn last line of an earlier run is never appended to, only skipped.
+ * The directory is locked, two instances must not share a journal. Batches the writer gives up on go to the
+ * dead-letter file, same format, never replayed.
+ */
+@Slf4j
+@Component
+public class AnswerJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "answers-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String DEAD_LETTERS = "dead-letters.log";
+
+    // end of an answer in the journal: segment number and offset after its line
+    public record Position(long segment, long offset) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Long.compare(offset, other.offset);
+        }
+    }
+
+    public record Entry(AnswerEventDTO event, Position end) {
+    }
+
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final boolean fsync;
+    private final long segmentBytes;
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    // segments from here on are written by this run
+    private final long firstSegment;
+    private FileChannel current;
+    private long currentSegment;
+    private long currentOffset;
+    // a write failed part way, the next one starts a new segment
+    private boolean torn;
+
+    // Everything before this position is forced to disk, segments of earlier runs count as forced. A segment is
+    // only closed after a force, a sync that finds its channel closed has been overtaken by roll().
+    private final AtomicReference<Position> synced;
+    private final Object syncLock = new Object();
+    private final AtomicLong forces = new AtomicLong();
+
+    public AnswerJournal(ObjectMapper objectMapper,
+                         @Value("${flashcards.answers.journal-dir:./data/answers}") String dir,
+                         @Value("${flashcards.answers.fsync:true}") boolean fsync,
+                         @Value("${flashcards.answers.segment-bytes:16777216}") long segmentBytes) throws IOException {
+        this.dir = Paths.get(dir);
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+
+        Files.createDirectories(this.dir);
+        lockChannel = FileChannel.open(this.dir.resolve("journal.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Answer journal " + this.dir.toAbsolutePath() + " is used by another instance.");
+        }
+        lock = acquired;
+        currentSegment = segments().stream().mapToLong(Long::longValue).max().orElse(0);
+        firstSegment = currentSegment + 1;
+        synced = new AtomicReference<>(new Position(firstSegment, 0));
+    }
+
+    public List<Entry> append(List<AnswerEventDTO> events) throws IOException {
+        List<Entry> entries = write(events);
+        sync(entries.get(entries.size() - 1).end());
+        return entries;
+    }
+
+    // in the file but not necessarily on disk yet, see sync
+    public synchronized List<Entry> write(List<AnswerEventDTO> events) throws IOException {
+        if (current == null || torn || currentOffset >= segmentBytes) {
+            roll();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 128);
+        List<Entry> entries = new ArrayList<>(events.size());
+        for (AnswerEventDTO event : events) {
+            out.write(writer.writeValueAsBytes(event));
+            out.write('\n');
+            entries.add(new Entry(event, new Position(currentSegment, currentOffset + out.size())));
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+        } catch (IOException e) {
+            // part of the lines may be in the file, carry on in a new segment once the lines before are forced
+            torn = true;
+            throw e;
+        }
+        currentOffset += out.size();
+        return entries;
+    }
+
+    // Returns once everything up to the position is on disk. One caller at a time forces the segment, with all that
+    // was written until then, the callers waiting meanwhile mostly find their answers already forced.
+    public void sync(Position upTo) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get().compareTo(upTo) >= 0) {
+                return;
+            }
+            FileChannel channel;
+            Position end;
+            synchronized (this) {
+                channel = current;
+                end = new Position(currentSegment, currentOffset);
+            }
+            try {
+                if (channel == null) {
+                    throw new ClosedChannelException();
+                }
+                channel.force(false);
+                forces.incrementAndGet();
+            } catch (ClosedChannelException e) {
+                if (synced.get().compareTo(upTo) >= 0) {
+                    return;
+                }
+                throw e;
+            }
+            advanceSynced(end);
+        }
+    }
+
+    public synchronized void deadLetter(List<Entry> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() * 128);
+        for (Entry entry : entries) {
+            out.write(writer.writeValueAsBytes(entry.event()));
+            out.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(dir.resolve(DEAD_LETTERS),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    // everything after the checkpoint in the segments of earlier runs, oldest first
+    public synchronized List<Entry> replay() throws IOException {
+        Position from = checkpoint();
+        List<Entry> entries = new ArrayList<>();
+        for (long segment : segments()) {
+            if (segment < from.segment() || segment >= firstSegment) {
+                continue;
+            }
+            byte[] bytes = Files.readAllBytes(segmentPath(segment));
+            int start = segment == from.segment() ? (int) Math.min(from.offset(), bytes.length) : 0;
+            for (int end = indexOf(bytes, start); end >= 0; start = end + 1, end = indexOf(bytes, start)) {
+                try {
+                    AnswerEventDTO event = objectMapper.readValue(bytes, start, end - start, AnswerEventDTO.class);
+                    entries.add(new Entry(event, new Position(segment, end + 1)));
+                } catch (IOException e) {
+                    log.warn("[Answer] skipped an unreadable line at {} of {}", start, segmentPath(segment));
+                }
+            }
+            if (start < bytes.length) {
+                log.warn("[Answer] skipped {} bytes of a torn last line in {}", bytes.length - start, segmentPath(segment));
+            }
+        }
+        return entries;
+    }
+
+    public synchronized void commit(Position position) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, position.segment() + " " + position.offset());
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long segment : segments()) {
+            if (segment < position.segment()) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        close(current);
+        current = null;
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void roll() throws IOException {
+        if (current != null && fsync) {
+            // the syncs after the roll only force the new segment
+            current.force(false);
+            forces.incrementAndGet();
+            advanceSynced(new Position(currentSegment, currentOffset));
+        }
+        close(current);
+        torn = false;
+        currentSegment++;
+        current = FileChannel.open(segmentPath(currentSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentOffset = 0;
+    }
+
+    private void advanceSynced(Position position) {
+        synced.accumulateAndGet(position, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+    }
+
+    long forces() {
+        return forces.get();
+    }
+
+    private Position checkpoint() throws IOException {
+        Path path = dir.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return new Position(0, 0);
+        }
+        String[] parts = Files.readString(path).trim().split(" ");
+        return new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(SEGMENT_PREFIX + String.format("%010d", segment) + SEGMENT_SUFFIX);
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void close(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("[Answer] could not close a journal segment", e);
+            }
+        }
+    }
+}
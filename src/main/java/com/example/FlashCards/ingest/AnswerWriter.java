@@ -0,0 +1,271 @@
+package com.example.FlashCards.ingest;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.services.AnswerService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind for POST /reviews/answers.
+ * <p>
+ * {@link #submit} appends the answers to the {@link AnswerJournal} and puts them on a bounded queue; when the
+ * queue has no room for the whole request nothing is taken and the controller answers 503 with Retry-After.
+ * Only the write to the journal is serialized, concurrent requests wait for the fsync together.
+ * One background thread takes up to batch-size answers at a time, writes them with {@link AnswerService#apply}
+ * (per shard when sharded) and commits the journal position. A failed batch is tried max-attempts times, the queue
+ * fills up meanwhile and clients are pushed back; then it goes to the journal's dead-letter file and is committed.
+ * <p>
+ * On start the thread first replays what the journal holds from earlier runs.
+ */
+@Slf4j
+@Component
+public class AnswerWriter implements MeterBinder {
+
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final AnswerJournal journal;
+    private final AnswerService answerService;
+    private final Shards shards;
+    private final BlockingQueue<AnswerJournal.Entry> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxRequestEvents;
+    private final int maxAttempts;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AnswerWriter(AnswerJournal journal,
+                        AnswerService answerService,
+                        Shards shards,
+                        @Value("${flashcards.answers.queue-capacity:100000}") int queueCapacity,
+                        @Value("${flashcards.answers.batch-size:1000}") int batchSize,
+                        @Value("${flashcards.answers.linger-ms:50}") long lingerMs,
+                        @Value("${flashcards.answers.max-request-events:1000}") int maxRequestEvents,
+                        @Value("${flashcards.answers.max-attempts:10}") int maxAttempts) {
+        this.journal = journal;
+        this.answerService = answerService;
+        this.shards = shards;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxRequestEvents = maxRequestEvents;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // false when the queue is full, nothing was taken then
+    public boolean submit(List<AnswerEventDTO> events) throws IOException {
+        validate(events);
+        Instant now = Instant.now();
+        for (AnswerEventDTO event : events) {
+            if (event.getEventId() == null) {
+                event.setEventId(UUID.randomUUID().toString());
+            }
+            if (event.getAnsweredAt() == null || event.getAnsweredAt().isAfter(now)) {
+                event.setAnsweredAt(now);
+            }
+        }
+        List<AnswerJournal.Entry> entries;
+        synchronized (this) {
+            if (queue.remainingCapacity() < events.size()) {
+                rejected.addAndGet(events.size());
+                return false;
+            }
+            // journal and queue in the same order, the committed positions only move forward
+            entries = journal.write(events);
+            queue.addAll(entries);
+        }
+        // acknowledged once on disk, the writer doesn't apply answers before either
+        journal.sync(entries.get(entries.size() - 1).end());
+        return true;
+    }
+
+    private void validate(List<AnswerEventDTO> events) {
+        if (events.isEmpty()) {
+            throw new InvalidRequestException("No answers.");
+        }
+        if (events.size() > maxRequestEvents) {
+            throw new InvalidRequestException("At most " + maxRequestEvents + " answers per request.");
+        }
+        for (AnswerEventDTO event : events) {
+            if (event.getWordId() == null) {
+                throw new InvalidRequestException("Word id is null.");
+            }
+            if (event.getGrade() == null || event.getGrade() < 0 || event.getGrade() > 5) {
+                throw new InvalidRequestException("Grade must be between 0 and 5.");
+            }
+            if (event.getEventId() != null && (event.getEventId().isBlank() || event.getEventId().length() > 36)) {
+                throw new InvalidRequestException("Event id must have 1 to 36 characters.");
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "answer-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // the thread finishes its batch, whatever is still queued is in the journal for the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void run() {
+        Deque<AnswerJournal.Entry> backlog = null;
+        while (running && backlog == null) {
+            try {
+                backlog = new ArrayDeque<>(journal.replay());
+            } catch (IOException e) {
+                log.warn("[Answer] could not read the journal, trying again", e);
+                pause();
+            }
+        }
+        if (backlog != null && !backlog.isEmpty()) {
+            log.info("[Answer] replaying {} answers from the journal", backlog.size());
+        }
+
+        List<AnswerJournal.Entry> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    fill(batch, backlog);
+                    attempts = 0;
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                AnswerJournal.Position end = batch.get(batch.size() - 1).end();
+                if (attempts < maxAttempts) {
+                    attempts++;
+                    journal.sync(end);
+                    int count = apply(batch);
+                    written.addAndGet(count);
+                    dropped.addAndGet(batch.size() - count);
+                } else {
+                    journal.deadLetter(batch);
+                    deadLettered.addAndGet(batch.size());
+                    log.error("[Answer] gave up on {} answers after {} attempts, moved to the dead-letter file", batch.size(), attempts);
+                }
+                journal.commit(end);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("[Answer] writing {} answers failed (attempt {} of {})", batch.size(), attempts, maxAttempts, e);
+                pause();
+            }
+        }
+    }
+
+    // a batch may hold answers to words of every shard, each shard writes its part in its own transaction
+    private int apply(List<AnswerJournal.Entry> batch) {
+        List<AnswerEventDTO> events = batch.stream().map(AnswerJournal.Entry::event).toList();
+        if (!shards.sharded()) {
+            return answerService.apply(events);
+        }
+        Map<Integer, List<AnswerEventDTO>> byShard = new TreeMap<>();
+        for (AnswerEventDTO event : events) {
+            try {
+                byShard.computeIfAbsent(shards.shardOfId(event.getWordId()), shard -> new ArrayList<>()).add(event);
+            } catch (NotFoundException e) {
+                // id out of every shard's range, no such word
+            }
+        }
+        int count = 0;
+        for (Map.Entry<Integer, List<AnswerEventDTO>> entry : byShard.entrySet()) {
+            count += shards.on(entry.getKey(), () -> answerService.apply(entry.getValue()));
+        }
+        return count;
+    }
+
+    private void fill(List<AnswerJournal.Entry> batch, Deque<AnswerJournal.Entry> backlog) throws InterruptedException {
+        while (backlog != null && !backlog.isEmpty() && batch.size() < batchSize) {
+            batch.add(backlog.poll());
+        }
+        if (!batch.isEmpty()) {
+            return;
+        }
+        AnswerJournal.Entry first = queue.poll(500, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        // a little time for the batch to fill up, fewer and larger transactions
+        if (queue.size() < batchSize - 1 && lingerMs > 0) {
+            Thread.sleep(lingerMs);
+        }
+        queue.drainTo(batch, batchSize - 1);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("flashcards.answers.queued", queue, BlockingQueue::size)
+                .description("Answers accepted but not yet in the database")
+                .register(registry);
+        FunctionCounter.builder("flashcards.answers.written", written, AtomicLong::get).register(registry);
+        FunctionCounter.builder("flashcards.answers.dropped", dropped, AtomicLong::get)
+                .description("Answers not written: already written before a replay, or the word is gone")
+                .register(registry);
+        FunctionCounter.builder("flashcards.answers.rejected", rejected, AtomicLong::get)
+                .description("Answers turned away with 503, the queue was full")
+                .register(registry);
+        FunctionCounter.builder("flashcards.answers.dead-lettered", deadLettered, AtomicLong::get)
+                .description("Answers of batches that failed max-attempts times, in the journal's dead-letter file")
+                .register(registry);
+    }
+}
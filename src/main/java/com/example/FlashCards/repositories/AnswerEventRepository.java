@@ -0,0 +1,20 @@
+package com.example.FlashCards.repositories;
+
+import com.example.FlashCards.entities.AnswerEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnswerEventRepository extends JpaRepository<AnswerEvent, Long> {
+
+    // index-only on uk_answer_events_event_id
+    @Query("select a.eventId from AnswerEvent a where a.eventId in :eventIds")
+    public List<String> findEventIdsIn(@Param("eventIds") Collection<String> eventIds);
+
+    public List<AnswerEvent> findByWordIdOrderByAnsweredAt(Long wordId);
+}
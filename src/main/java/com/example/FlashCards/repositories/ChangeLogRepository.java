@@ -0,0 +1,81 @@
+package com.example.FlashCards.repositories;
+
+import com.example.FlashCards.entities.ChangeLogEntry;
+import com.example.FlashCards.entities.ChangeLogEntry.EntityType;
+import com.example.FlashCards.entities.ChangeLogEntry.Op;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, ChangeLogEntry.Key> {
+
+    // range scan of the primary key
+    @Query("select c from ChangeLogEntry c where c.userId = :userId and c.seq > :afterSeq order by c.seq")
+    public Slice<ChangeLogEntry> findSlice(@Param("userId") Long userId, @Param("afterSeq") long afterSeq, Pageable pageable);
+
+    // Users with entries that went past the compaction cutoff, or tombstones past the retention, since the last run.
+    // In chunks by id, see ChangeLogCompactor.
+    @Query("select distinct c.userId from ChangeLogEntry c where c.userId > :afterId and ("
+            + " (c.changedAt >= :from and c.changedAt < :before)"
+            + " or (c.op <> :upsert and c.changedAt >= :tombstonesFrom and c.changedAt < :tombstonesBefore))"
+            + " order by c.userId")
+    public List<Long> findUserIdsToCompact(@Param("afterId") Long afterId,
+                                           @Param("from") Instant from, @Param("before") Instant before,
+                                           @Param("tombstonesFrom") Instant tombstonesFrom,
+                                           @Param("tombstonesBefore") Instant tombstonesBefore,
+                                           @Param("upsert") Op upsert, Pageable pageable);
+
+    default List<Long> findUserIdsToCompact(Long afterId, Instant from, Instant before,
+                                            Instant tombstonesFrom, Instant tombstonesBefore, Pageable pageable) {
+        return findUserIdsToCompact(afterId, from, before, tombstonesFrom, tombstonesBefore, Op.UPSERT, pageable);
+    }
+
+    // Entries that a later entry makes redundant: a later change of the same entity with the same op or a DELETE
+    // (an UPSERT doesn't undo a CLEAR of the words of a glossary, nor a CLEAR the rename of a user), a DELETE or
+    // CLEAR of the glossary of a word, a CLEAR of the user for glossaries and words. Dropping them never loses
+    // a change for any client.
+    @Query("select c.seq from ChangeLogEntry c where c.userId = :userId and c.changedAt < :before and exists"
+            + " (select 1 from ChangeLogEntry n where n.userId = c.userId and n.seq > c.seq and ("
+            + " (n.entity = c.entity and n.entityId = c.entityId and (n.op = c.op or n.op = :delete))"
+            + " or (c.entity = :word and n.entity = :glossary and n.entityId = c.glossaryId and n.op <> :upsert)"
+            + " or (c.entity <> :user and n.entity = :user and n.op = :clear)))")
+    public List<Long> findSupersededSeqs(@Param("userId") Long userId, @Param("before") Instant before,
+                                         @Param("word") EntityType word, @Param("glossary") EntityType glossary,
+                                         @Param("user") EntityType user, @Param("upsert") Op upsert,
+                                         @Param("delete") Op delete, @Param("clear") Op clear);
+
+    default List<Long> findSupersededSeqs(Long userId, Instant before) {
+        return findSupersededSeqs(userId, before, EntityType.WORD, EntityType.GLOSSARY, EntityType.USER,
+                Op.UPSERT, Op.DELETE, Op.CLEAR);
+    }
+
+    // the last tombstone older than the cutoff, see ChangeLogCompactor
+    @Query("select max(c.seq) from ChangeLogEntry c where c.userId = :userId and c.changedAt < :before and c.op <> :upsert")
+    public Optional<Long> findLastTombstoneSeq(@Param("userId") Long userId, @Param("before") Instant before, @Param("upsert") Op upsert);
+
+    default Optional<Long> findLastTombstoneSeq(Long userId, Instant before) {
+        return findLastTombstoneSeq(userId, before, Op.UPSERT);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ChangeLogEntry c where c.userId = :userId and c.seq in :seqs")
+    public int deleteBySeqIn(@Param("userId") Long userId, @Param("seqs") Collection<Long> seqs);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ChangeLogEntry c where c.userId = :userId and c.seq <= :upToSeq and c.op <> :upsert")
+    public int deleteTombstonesUpTo(@Param("userId") Long userId, @Param("upToSeq") long upToSeq, @Param("upsert") Op upsert);
+
+    default int deleteTombstonesUpTo(Long userId, long upToSeq) {
+        return deleteTombstonesUpTo(userId, upToSeq, Op.UPSERT);
+    }
+}
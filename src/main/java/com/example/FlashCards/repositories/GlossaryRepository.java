@@ -1,21 +1,120 @@
 package com.example.FlashCards.repositories;
 
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
 import com.example.FlashCards.entities.Glossary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GlossaryRepository extends JpaRepository<Glossary, Long> {
 
+    String EXPORT_FETCH_SIZE = "1000";
+
     @EntityGraph(value = "Glossary.user")
     public Optional<Glossary> findById(Long id);
     @EntityGraph(value = "Glossary.user")
     public List<Glossary> findByUserId(Long id);
 
-    @EntityGraph(value = "Glossary.user")
-    public void deleteAllByUserId(Long id);
+    // Read path: DTOs straight from the result set, no managed entities, no password column
+    String SELECT_DTO = "select new com.example.FlashCards.DTOs.GlossaryDTO(g.id, g.name, g.createdAt, g.updatedAt, g.version,"
+            + " g.wordCount, coalesce(g.lastActivityAt, g.createdAt), u.id, u.name, u.createdAt, u.updatedAt, u.version)"
+            + " from Glossary g left join g.user u";
+
+    @Query(SELECT_DTO + " where g.id = :glossaryId")
+    public Optional<GlossaryDTO> findDTOById(@Param("glossaryId") Long glossaryId);
+
+    @Query(SELECT_DTO + " where u.id = :userId order by g.id")
+    public List<GlossaryDTO> findDTOsByUserId(@Param("userId") Long userId);
+
+    // see WordRepository.findDTOsByIdIn
+    @Query(SELECT_DTO + " where g.id in :glossaryIds")
+    public List<GlossaryDTO> findDTOsByIdIn(@Param("glossaryIds") Collection<Long> glossaryIds);
+
+    @Query(SELECT_DTO + " where u.id = :userId and g.id > :afterId order by g.id")
+    public Slice<GlossaryDTO> findSliceByUserId(@Param("userId") Long userId,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query(SELECT_DTO + " where u.id = :userId"
+            + " and (g.updatedAt > :afterUpdatedAt or (g.updatedAt = :afterUpdatedAt and g.id > :afterId))"
+            + " order by g.updatedAt, g.id")
+    public Slice<GlossaryDTO> findSliceByUserIdOrderByUpdatedAt(@Param("userId") Long userId,
+                                                                @Param("afterUpdatedAt") Instant afterUpdatedAt,
+                                                                @Param("afterId") Long afterId,
+                                                                Pageable pageable);
+
+    // PATCH: the user of the glossary for its change log, index-only on the foreign key
+    @Query("select g.user.id from Glossary g where g.id = :glossaryId")
+    public Optional<Long> findUserIdById(@Param("glossaryId") Long glossaryId);
+
+    // validators of the word list, one row by primary key, the words aren't read
+    @Query("select new com.example.FlashCards.DTOs.ListVersionDTO(g.wordsVersion, coalesce(g.wordsModifiedAt, g.createdAt))"
+            + " from Glossary g where g.id = :glossaryId")
+    public Optional<ListVersionDTO> findWordsVersion(@Param("glossaryId") Long glossaryId);
+
+    // In the transaction of the change, so a client never gets the new version with the old list.
+    // Word count and last activity go with it, words is what the change adds (or removes, negative).
+    @Modifying(flushAutomatically = true)
+    @Query("update Glossary g set g.wordsVersion = g.wordsVersion + 1, g.wordsModifiedAt = :now,"
+            + " g.wordCount = g.wordCount + :words, g.lastActivityAt = :now where g.id = :glossaryId")
+    public int bumpWordsVersion(@Param("glossaryId") Long glossaryId, @Param("words") long words, @Param("now") Instant now);
+
+    // PATCH, see WordRepository.renameIfVersion. 0 rows when the glossary is gone or the version is not current.
+    @Modifying(flushAutomatically = true)
+    @Query("update Glossary g set g.name = :name, g.updatedAt = :now, g.version = g.version + 1"
+            + " where g.id = :glossaryId and g.version = :version")
+    public int renameIfVersion(@Param("glossaryId") Long glossaryId, @Param("version") long version,
+                               @Param("name") String name, @Param("now") Instant now);
+
+    // every word of the user embeds the user
+    @Modifying(flushAutomatically = true)
+    @Query("update Glossary g set g.wordsVersion = g.wordsVersion + 1, g.wordsModifiedAt = :now where g.user.id = :userId")
+    public int bumpWordsVersionByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    // forward-only: every glossary of the user followed by its words (w is null for an empty glossary),
+    // fetched in rounds of EXPORT_FETCH_SIZE rows, see ExportService
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select g, w from Glossary g left join g.words w where g.user.id = :userId order by g.id, w.id")
+    public Stream<Object[]> streamWithWordsByUserId(@Param("userId") Long userId);
+
+    // a chunk of CounterReconciler, locked: words can't be added or deleted until the counts are repaired
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select g from Glossary g where g.id > :afterId order by g.id")
+    public List<Glossary> findChunkForRepair(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Glossary g set g.wordCount = (select count(w) from Word w where w.glossary.id = g.id)"
+            + " where g.id between :fromId and :toId"
+            + " and g.wordCount <> (select count(w) from Word w where w.glossary.id = g.id)")
+    public int repairWordCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // the words have to be gone first, see WordRepository.deleteAllByGlossaryId / deleteAllByUserId
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Glossary g where g.id = :glossaryId")
+    public int deleteByIdInBulk(@Param("glossaryId") Long glossaryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Glossary g where g.user.id = :userId")
+    public int deleteAllByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,36 @@
+package com.example.FlashCards.repositories;
+
+import com.example.FlashCards.entities.ReviewCard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReviewCardRepository extends JpaRepository<ReviewCard, Long> {
+
+    // range scan of idx_review_cards_user_due, already in due_at order, stops after limit rows
+    @Query("select c from ReviewCard c join fetch c.word where c.user.id = :userId and c.dueAt <= :now order by c.dueAt")
+    public List<ReviewCard> findDue(@Param("userId") Long userId,
+                                    @Param("now") Instant now,
+                                    Pageable pageable);
+
+    // two answers to the same card at once are applied one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ReviewCard c join fetch c.word where c.wordId = :wordId")
+    public Optional<ReviewCard> findForAnswer(@Param("wordId") Long wordId);
+
+    // the cards of a batch of answers, locked in id order so two batches can't deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ReviewCard c where c.wordId in :wordIds order by c.wordId")
+    public List<ReviewCard> findAllForAnswer(@Param("wordIds") Collection<Long> wordIds);
+}
@@ -1,13 +1,107 @@
 package com.example.FlashCards.repositories;
 
+import com.example.FlashCards.DTOs.ChangeLogPositionDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.UserDTO;
 import com.example.FlashCards.entities.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     // TODO: check if return List<User> or Optional
     public Optional<User> findByName(String name);
+
+    // index-only on uk_users_name
+    @Query("select u.id from User u where u.name = :name")
+    public Optional<Long> findIdByName(@Param("name") String name);
+
+    // login only needs the password, not the whole user
+    @Query("select u.password from User u where u.name = :name")
+    public Optional<String> findPasswordByName(@Param("name") String name);
+
+    // Read path: DTOs straight from the result set, no managed entities, no password column
+    String SELECT_DTO = "select new com.example.FlashCards.DTOs.UserDTO(u.id, u.name, u.createdAt, u.updatedAt, u.version,"
+            + " u.glossaryCount, coalesce(u.lastActivityAt, u.createdAt)) from User u";
+
+    @Query(SELECT_DTO + " where u.id = :userId")
+    public Optional<UserDTO> findDTOById(@Param("userId") Long userId);
+
+    @Query(SELECT_DTO + " where u.name = :name")
+    public Optional<UserDTO> findDTOByName(@Param("name") String name);
+
+    @Query(SELECT_DTO + " order by u.id")
+    public List<UserDTO> findAllDTOs();
+
+    @Query(SELECT_DTO + " where u.id > :afterId order by u.id")
+    public Slice<UserDTO> findSlice(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SELECT_DTO
+            + " where u.updatedAt > :afterUpdatedAt or (u.updatedAt = :afterUpdatedAt and u.id > :afterId)"
+            + " order by u.updatedAt, u.id")
+    public Slice<UserDTO> findSliceOrderByUpdatedAt(@Param("afterUpdatedAt") Instant afterUpdatedAt,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    // validators of the glossary list, see GlossaryRepository.findWordsVersion
+    @Query("select new com.example.FlashCards.DTOs.ListVersionDTO(u.glossariesVersion, coalesce(u.glossariesModifiedAt, u.createdAt))"
+            + " from User u where u.id = :userId")
+    public Optional<ListVersionDTO> findGlossariesVersion(@Param("userId") Long userId);
+
+    // glossary count and last activity go with the list version, see GlossaryRepository.bumpWordsVersion
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.glossariesVersion = u.glossariesVersion + 1, u.glossariesModifiedAt = :now,"
+            + " u.glossaryCount = u.glossaryCount + :glossaries, u.lastActivityAt = :now where u.id = :userId")
+    public int bumpGlossariesVersion(@Param("userId") Long userId, @Param("glossaries") long glossaries, @Param("now") Instant now);
+
+    // PATCH, see WordRepository.renameIfVersion
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.name = :name, u.updatedAt = :now, u.version = u.version + 1"
+            + " where u.id = :userId and u.version = :version")
+    public int renameIfVersion(@Param("userId") Long userId, @Param("version") long version,
+                               @Param("name") String name, @Param("now") Instant now);
+
+    // Sequence numbers of the change log, see ChangeLogService.record. The row stays locked until the commit, so
+    // the changes of a user commit in the order of their numbers. Every change goes through here, last activity with it.
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.changeSeq = u.changeSeq + :changes, u.lastActivityAt = :now where u.id = :userId")
+    public int advanceChangeSeq(@Param("userId") Long userId, @Param("changes") long changes, @Param("now") Instant now);
+
+    @Query("select u.changeSeq from User u where u.id = :userId")
+    public Optional<Long> findChangeSeq(@Param("userId") Long userId);
+
+    @Query("select new com.example.FlashCards.DTOs.ChangeLogPositionDTO(u.changeSeq, u.compactedSeq) from User u where u.id = :userId")
+    public Optional<ChangeLogPositionDTO> findChangeLogPosition(@Param("userId") Long userId);
+
+    // see ChangeLogCompactor
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.compactedSeq = :seq where u.id = :userId and u.compactedSeq < :seq")
+    public int raiseCompactedSeq(@Param("userId") Long userId, @Param("seq") long seq);
+
+    // see GlossaryRepository.findChunkForRepair
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id > :afterId order by u.id")
+    public List<User> findChunkForRepair(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.glossaryCount = (select count(g) from Glossary g where g.user.id = u.id)"
+            + " where u.id between :fromId and :toId"
+            + " and u.glossaryCount <> (select count(g) from Glossary g where g.user.id = u.id)")
+    public int repairGlossaryCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // last step of UserService.deleteById, after the words and glossaries of the user
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id = :userId")
+    public int deleteByIdInBulk(@Param("userId") Long userId);
 }
@@ -1,10 +1,20 @@
 package com.example.FlashCards.repositories;
 
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.DTOs.WordHitDTO;
+import com.example.FlashCards.entities.Glossary;
 import com.example.FlashCards.entities.Word;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +27,63 @@ public interface WordRepository extends JpaRepository<Word, Long> {
     @EntityGraph(value = "Word.glossary")
     public List<Word> findByGlossaryId(Long glossaryId);
 
-    @EntityGraph(value = "Word.glossary")
-    public void deleteAllByGlossaryId(Long glossaryId);
+    // Read path: DTOs straight from the result set, no managed entities, no password column
+    String SELECT_DTO = "select new com.example.FlashCards.DTOs.WordDTO(w.id, w.name, w.createdAt, w.updatedAt, w.version,"
+            + " g.id, g.name, g.createdAt, g.updatedAt, g.version, u.id, u.name, u.createdAt, u.updatedAt, u.version)"
+            + " from Word w join w.glossary g left join g.user u";
+
+    @Query(SELECT_DTO + " where w.id = :wordId")
+    public Optional<WordDTO> findDTOById(@Param("wordId") Long wordId);
+
+    @Query(SELECT_DTO + " where g.id = :glossaryId order by w.id")
+    public List<WordDTO> findDTOsByGlossaryId(@Param("glossaryId") Long glossaryId);
+
+    // the words of a page of GET /users/{userId}/changes
+    @Query(SELECT_DTO + " where w.id in :wordIds")
+    public List<WordDTO> findDTOsByIdIn(@Param("wordIds") Collection<Long> wordIds);
+
+    // keyset pages: Slice fetches limit + 1 rows and never runs a count query
+    @Query(SELECT_DTO + " where g.id = :glossaryId and w.id > :afterId order by w.id")
+    public Slice<WordDTO> findSliceByGlossaryId(@Param("glossaryId") Long glossaryId,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query(SELECT_DTO + " where g.id = :glossaryId"
+            + " and (w.updatedAt > :afterUpdatedAt or (w.updatedAt = :afterUpdatedAt and w.id > :afterId))"
+            + " order by w.updatedAt, w.id")
+    public Slice<WordDTO> findSliceByGlossaryIdOrderByUpdatedAt(@Param("glossaryId") Long glossaryId,
+                                                                @Param("afterUpdatedAt") Instant afterUpdatedAt,
+                                                                @Param("afterId") Long afterId,
+                                                                Pageable pageable);
+
+    // PATCH: the glossary only (its user is a proxy, the id is enough), not the word
+    @Query("select w.glossary from Word w where w.id = :wordId")
+    public Optional<Glossary> findGlossaryByWordId(@Param("wordId") Long wordId);
+
+    // PATCH: a rename in one statement, nothing is loaded or dirty checked. 0 rows when the version is not current.
+    @Modifying(flushAutomatically = true)
+    @Query("update Word w set w.name = :name, w.updatedAt = :now, w.version = w.version + 1"
+            + " where w.id = :wordId and w.version = :version")
+    public int renameIfVersion(@Param("wordId") Long wordId, @Param("version") long version,
+                               @Param("name") String name, @Param("now") Instant now);
+
+    // the search index of a user, without loading the entities
+    @Query("select new com.example.FlashCards.DTOs.WordHitDTO(w.id, w.name, w.glossary.id)"
+            + " from Word w where w.glossary.user.id = :userId")
+    public List<WordHitDTO> findHitsByUserId(@Param("userId") Long userId);
+
+    // index-only on uk_words_glossary_name
+    @Query("select w.name from Word w where w.glossary.id = :glossaryId and w.name in :names")
+    public List<String> findNamesInGlossary(@Param("glossaryId") Long glossaryId, @Param("names") Collection<String> names);
+
+    // Set-based deletes: one statement instead of loading every word and removing it on its own.
+    // Review cards go with their words (ON DELETE CASCADE). The persistence context is cleared
+    // afterwards, entities loaded before would still look alive.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Word w where w.glossary.id = :glossaryId")
+    public int deleteAllByGlossaryId(@Param("glossaryId") Long glossaryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Word w where w.glossary.id in (select g.id from Glossary g where g.user.id = :userId)")
+    public int deleteAllByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,284 @@
+package com.example.FlashCards.search;
+
+import com.example.FlashCards.DTOs.WordHitDTO;
+import com.example.FlashCards.utils.Transactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index over the word names of a user, across all of their glossaries.
+ * <p>
+ * Names are matched case-insensitively. Prefix matches come from a sorted map of names, infix matches from
+ * trigram postings (intersect the postings of the query's trigrams, then check the few candidates). Queries
+ * shorter than a trigram only get prefix matches, they would have to check every name of the user.
+ * An index is built on the first search of a user and then kept up to date by WordService after every commit.
+ * Indexes of users that don't search for a while are dropped and rebuilt on demand.
+ */
+@Component
+public class WordSearchIndex {
+
+    // how long the stamp of a change is kept, longer than any build should take
+    private static final Duration CHANGE_MEMORY = Duration.ofMinutes(1);
+
+    private final Cache<Long, UserIndex> indexes;
+    // Every change of a user's words takes the next number and stamps the user with it, a build that overlaps
+    // a change of its user is not kept. Stamps go away after a while or with the index of the user.
+    private final AtomicLong changeCount = new AtomicLong();
+    private final Cache<Long, Long> changes;
+    // highest stamp dropped from changes, builds older than that can't tell and are not kept
+    private final AtomicLong forgottenChanges = new AtomicLong();
+
+    public WordSearchIndex(@Value("${flashcards.search.max-words:2000000}") long maxWords,
+                           @Value("${flashcards.search.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.changes = Caffeine.newBuilder()
+                .expireAfterWrite(CHANGE_MEMORY)
+                // in the same map operation, a stamp is never gone without being counted as forgotten
+                .evictionListener((Long userId, Long stamp, RemovalCause cause) -> forget(stamp))
+                .executor(Runnable::run)
+                .build();
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxWords)
+                // weighed on every put, and again after every update, see afterCommit
+                .weigher((Long userId, UserIndex index) -> Math.max(1, index.size()))
+                .expireAfterAccess(expireAfterAccess)
+                .executor(Runnable::run)
+                .removalListener((Long userId, UserIndex index, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        changes.asMap().computeIfPresent(userId, (id, stamp) -> {
+                            forget(stamp);
+                            return null;
+                        });
+                    }
+                })
+                .build();
+    }
+
+    public List<WordHitDTO> search(Long userId, String query, int limit, Supplier<List<WordHitDTO>> loader) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index == null) {
+            long stamp = changeCount.get();
+            index = new UserIndex(loader.get());
+            if (!changedSince(userId, stamp)) {
+                UserIndex built = index;
+                index = indexes.asMap().merge(userId, built, (existing, ignored) -> existing);
+                // a change that came in between the check and the put didn't see the index
+                if (changedSince(userId, stamp)) {
+                    indexes.asMap().remove(userId, built);
+                }
+            }
+        }
+        return index.search(normalize(query), limit);
+    }
+
+    public void add(Long userId, WordHitDTO hit) {
+        addAll(userId, List.of(hit));
+    }
+
+    // also for renamed words, the old name of the same id is replaced
+    public void addAll(Long userId, List<WordHitDTO> hits) {
+        afterCommit(userId, index -> hits.forEach(index::add));
+    }
+
+    public void remove(Long userId, Long wordId) {
+        afterCommit(userId, index -> index.remove(wordId));
+    }
+
+    public void removeGlossary(Long userId, Long glossaryId) {
+        afterCommit(userId, index -> index.removeGlossary(glossaryId));
+    }
+
+    public void invalidate(Long userId) {
+        Transactions.afterCommit(() -> {
+            changed(userId);
+            indexes.invalidate(userId);
+        });
+    }
+
+    long words() {
+        return indexes.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private void afterCommit(Long userId, Consumer<UserIndex> update) {
+        Transactions.afterCommit(() -> {
+            changed(userId);
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                int size = index.size();
+                update.accept(index);
+                // Caffeine weighs only on a write, the same index again takes the new size
+                if (index.size() != size) {
+                    indexes.asMap().replace(userId, index, index);
+                }
+            }
+        });
+    }
+
+    private void changed(Long userId) {
+        long stamp = changeCount.incrementAndGet();
+        changes.asMap().merge(userId, stamp, Math::max);
+    }
+
+    private boolean changedSince(Long userId, long stamp) {
+        Long changed = changes.getIfPresent(userId);
+        return (changed != null && changed > stamp) || forgottenChanges.get() > stamp;
+    }
+
+    private void forget(Long stamp) {
+        if (stamp != null) {
+            forgottenChanges.accumulateAndGet(stamp, Math::max);
+        }
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    static final class UserIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, WordHitDTO> byId = new HashMap<>();
+        // normalized name -> hits, names are only unique per glossary
+        private final NavigableMap<String, Map<Long, WordHitDTO>> byName = new TreeMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        UserIndex(List<WordHitDTO> hits) {
+            hits.forEach(this::put);
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        void add(WordHitDTO hit) {
+            lock.writeLock().lock();
+            try {
+                delete(hit.getId());
+                put(hit);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long wordId) {
+            lock.writeLock().lock();
+            try {
+                delete(wordId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeGlossary(Long glossaryId) {
+            lock.writeLock().lock();
+            try {
+                byId.values().stream()
+                        .filter(hit -> glossaryId.equals(hit.getGlossaryId()))
+                        .map(WordHitDTO::getId)
+                        .toList()
+                        .forEach(this::delete);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<WordHitDTO> search(String query, int limit) {
+            lock.readLock().lock();
+            try {
+                List<WordHitDTO> found = new ArrayList<>(Math.min(limit, 64));
+                for (Map<Long, WordHitDTO> hits : byName.subMap(query, true, query + Character.MAX_VALUE, false).values()) {
+                    for (WordHitDTO hit : hits.values()) {
+                        if (found.size() == limit) {
+                            return found;
+                        }
+                        found.add(hit);
+                    }
+                }
+                if (found.size() < limit && query.length() >= 3) {
+                    infix(query, limit - found.size(), found);
+                }
+                return found;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // names that contain the query but don't start with it, those are already in the prefix matches
+        private void infix(String query, int limit, List<WordHitDTO> found) {
+            List<WordHitDTO> matches = new ArrayList<>();
+            for (Long id : candidates(query)) {
+                WordHitDTO hit = byId.get(id);
+                String name = normalize(hit.getName());
+                if (!name.startsWith(query) && name.contains(query)) {
+                    matches.add(hit);
+                }
+            }
+            matches.sort(Comparator.comparing((WordHitDTO hit) -> normalize(hit.getName())).thenComparing(WordHitDTO::getId));
+            found.addAll(matches.subList(0, Math.min(limit, matches.size())));
+        }
+
+        private Collection<Long> candidates(String query) {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String trigram : trigrams(query)) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> candidates = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(lists.get(i));
+            }
+            return candidates;
+        }
+
+        private void put(WordHitDTO hit) {
+            String name = normalize(hit.getName());
+            byId.put(hit.getId(), hit);
+            byName.computeIfAbsent(name, key -> new HashMap<>(2)).put(hit.getId(), hit);
+            for (String trigram : trigrams(name)) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(hit.getId());
+            }
+        }
+
+        private void delete(Long wordId) {
+            WordHitDTO hit = byId.remove(wordId);
+            if (hit == null) {
+                return;
+            }
+            String name = normalize(hit.getName());
+            byName.computeIfPresent(name, (key, hits) -> {
+                hits.remove(wordId);
+                return hits.isEmpty() ? null : hits;
+            });
+            for (String trigram : trigrams(name)) {
+                postings.computeIfPresent(trigram, (key, ids) -> {
+                    ids.remove(wordId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        private static Set<String> trigrams(String name) {
+            Set<String> trigrams = new HashSet<>();
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                trigrams.add(name.substring(i, i + 3));
+            }
+            return trigrams;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.example.FlashCards.entities.AnswerEvent;
+import com.example.FlashCards.entities.ReviewCard;
+import com.example.FlashCards.repositories.AnswerEventRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a batch of answers from AnswerWriter in one transaction: one query for the answers already written,
+ * one locking query for all cards, then batched inserts of the answers and batched updates of the cards.
+ */
+@Slf4j
+@Timed("flashcards.service")
+@Transactional
+@Service
+public class AnswerService {
+
+    @Autowired
+    AnswerEventRepository answerEventRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
+
+    // returns the number of answers written, answers to words deleted in the meantime are dropped
+    public int apply(List<AnswerEventDTO> events) {
+        // the same event twice in a batch (a client retry) or already written before a crash (journal replay)
+        Map<String, AnswerEventDTO> byEventId = new LinkedHashMap<>();
+        events.forEach(event -> byEventId.putIfAbsent(event.getEventId(), event));
+        answerEventRepository.findEventIdsIn(byEventId.keySet()).forEach(byEventId::remove);
+        if (byEventId.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> wordIds = byEventId.values().stream().map(AnswerEventDTO::getWordId).collect(Collectors.toSet());
+        Map<Long, ReviewCard> cards = reviewCardRepository.findAllForAnswer(wordIds).stream()
+                .collect(Collectors.toMap(ReviewCard::getWordId, Function.identity()));
+
+        List<AnswerEvent> answers = new ArrayList<>(byEventId.size());
+        byEventId.values().stream()
+                .sorted(Comparator.comparing(AnswerEventDTO::getAnsweredAt))
+                .forEach(event -> {
+                    ReviewCard card = cards.get(event.getWordId());
+                    if (card == null) {
+                        return;
+                    }
+                    ReviewService.schedule(card, event.getGrade(), event.getAnsweredAt());
+                    answers.add(AnswerEvent.builder()
+                            .eventId(event.getEventId())
+                            .wordId(event.getWordId())
+                            .userId(card.getUser().getId())//id of the proxy, no query
+                            .grade(event.getGrade())
+                            .answeredAt(event.getAnsweredAt())
+                            .build());
+                });
+        answerEventRepository.saveAll(answers);
+
+        if (answers.size() < byEventId.size()) {
+            log.info("[Answer] dropped {} answers to words that no longer exist", byEventId.size() - answers.size());
+        }
+        return answers.size();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.repositories.ChangeLogRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compacts the change log (see ChangeLogService) of the users with entries that got older than compact-after
+ * since the last run (all users in the first run after a start), a user per transaction. Older entries collapse
+ * into a snapshot: the last entry of the user and of every glossary and word that still exists, which the changes
+ * endpoint fills with the current state. Entries a later one makes redundant go, nobody misses them. Tombstones stay for
+ * tombstone-retention; dropping them raises User.compactedSeq, and a client whose token is older starts over.
+ */
+@Slf4j
+@Component
+public class ChangeLogCompactor {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final UserRepository userRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration compactAfter;
+    private final Duration tombstoneRetention;
+    private final int chunkSize;
+
+    // cutoffs of the last run that got through
+    private Instant compactedBefore = Instant.EPOCH;
+    private Instant tombstonesDroppedBefore = Instant.EPOCH;
+
+    @Autowired
+    public ChangeLogCompactor(ChangeLogRepository changeLogRepository,
+                              UserRepository userRepository,
+                              Shards shards,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${flashcards.changes.compact-after:1h}") Duration compactAfter,
+                              @Value("${flashcards.changes.tombstone-retention:30d}") Duration tombstoneRetention,
+                              @Value("${flashcards.changes.compact-chunk-size:500}") int chunkSize) {
+        this(changeLogRepository, userRepository, shards, transactionManager, Clock.systemUTC(),
+                compactAfter, tombstoneRetention, chunkSize);
+    }
+
+    ChangeLogCompactor(ChangeLogRepository changeLogRepository,
+                       UserRepository userRepository,
+                       Shards shards,
+                       PlatformTransactionManager transactionManager,
+                       Clock clock,
+                       Duration compactAfter,
+                       Duration tombstoneRetention,
+                       int chunkSize) {
+        this.changeLogRepository = changeLogRepository;
+        this.userRepository = userRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.compactAfter = compactAfter;
+        this.tombstoneRetention = tombstoneRetention;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${flashcards.changes.compact-initial-delay-ms:900000}",
+            fixedDelayString = "${flashcards.changes.compact-interval-ms:3600000}")
+    public void scheduled() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.warn("[Changes] compaction failed, next run in the next interval", e);
+        }
+    }
+
+    // returns the number of entries removed
+    public synchronized int compact() {
+        Instant now = clock.instant();
+        Instant compactBefore = now.minus(compactAfter);
+        Instant tombstonesBefore = now.minus(tombstoneRetention);
+        int removed = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            removed += shards.on(shard, () -> compactShard(compactBefore, tombstonesBefore));
+        }
+        compactedBefore = compactBefore;
+        tombstonesDroppedBefore = tombstonesBefore;
+        if (removed > 0) {
+            log.info("[Changes] compacted away {} change log entries", removed);
+        }
+        return removed;
+    }
+
+    private int compactShard(Instant compactBefore, Instant tombstonesBefore) {
+        int removed = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> userIds = changeLogRepository.findUserIdsToCompact(afterId, compactedBefore, compactBefore,
+                    tombstonesDroppedBefore, tombstonesBefore, PageRequest.ofSize(chunkSize));
+            if (userIds.isEmpty()) {
+                return removed;
+            }
+            for (Long userId : userIds) {
+                removed += transactionTemplate.execute(status -> compactUser(userId, compactBefore, tombstonesBefore));
+            }
+            afterId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    // compactedSeq goes up in the transaction that drops the tombstones, see ChangeLogService.getChanges
+    private int compactUser(Long userId, Instant compactBefore, Instant tombstonesBefore) {
+        int removed = 0;
+        List<Long> superseded = changeLogRepository.findSupersededSeqs(userId, compactBefore);
+        if (!superseded.isEmpty()) {
+            removed += changeLogRepository.deleteBySeqIn(userId, superseded);
+        }
+        Optional<Long> lastTombstone = changeLogRepository.findLastTombstoneSeq(userId, tombstonesBefore);
+        if (lastTombstone.isPresent()) {
+            userRepository.raiseCompactedSeq(userId, lastTombstone.get());
+            removed += changeLogRepository.deleteTombstonesUpTo(userId, lastTombstone.get());
+        }
+        return removed;
+    }
+}
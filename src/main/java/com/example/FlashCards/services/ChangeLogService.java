@@ -0,0 +1,144 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.ChangeDTO;
+import com.example.FlashCards.DTOs.ChangeLogPositionDTO;
+import com.example.FlashCards.DTOs.ChangesDTO;
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.entities.ChangeLogEntry;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.ChangeLogRepository;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user log of the changes to the user, its glossaries and words, for clients that keep a copy and catch up
+ * with GET /users/{userId}/changes?since=token instead of loading everything again. Glossaries and words embed
+ * their user, so a renamed user is a change as well.
+ * <p>
+ * UserService, GlossaryService and WordService record every change in its own transaction. The sequence numbers come from
+ * User.changeSeq, the update holds the user row until the commit, so a client never sees number n+1 before n.
+ * Deletes leave tombstones, bulk deletes one per scope: DELETE of a glossary takes its words along, CLEAR of
+ * a glossary its words, CLEAR of the user all glossaries. ChangeLogCompactor keeps the log small.
+ */
+@Timed("flashcards.service")
+@Transactional
+@Service
+public class ChangeLogService {
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+
+    public void record(Long userId, ChangeLogEntry change) {
+        record(userId, List.of(change));
+    }
+
+    // in the transaction of the change: one update and one select for the numbers, one JDBC batch for the entries
+    public void record(Long userId, List<ChangeLogEntry> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        userRepository.advanceChangeSeq(userId, changes.size(), changes.get(0).getChangedAt());
+        long seq = userRepository.findChangeSeq(userId)
+                .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found.")) - changes.size();
+        for (ChangeLogEntry change : changes) {
+            change.setUserId(userId);
+            change.setSeq(++seq);
+        }
+        changeLogRepository.saveAll(changes);
+    }
+
+    // Not @ReplicaRead: a replica behind the primary would hand out a token the next call on the primary skips past.
+    // Without a token, or one from before the last compaction, the client has to start over (reset).
+    @Transactional(readOnly = true)
+    public ChangesDTO getChanges(@ShardKey Long userId, String since, int limit) {
+        Pageable page = Cursor.page(limit);
+        Long afterSeq = since == null || since.isEmpty() ? null : decode(since);
+        Slice<ChangeLogEntry> entries = afterSeq == null ? null : changeLogRepository.findSlice(userId, afterSeq, page);
+        // after the entries: a compaction that took one of them away has raised compactedSeq by now
+        ChangeLogPositionDTO position = userRepository.findChangeLogPosition(userId)
+                .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
+        if (afterSeq == null || afterSeq < position.getCompactedSeq() || afterSeq > position.getChangeSeq()) {
+            return new ChangesDTO(List.of(), encode(position.getChangeSeq()), false, true);
+        }
+
+        List<ChangeLogEntry> rows = entries.getContent();
+        Map<Long, UserDTO> users = current(rows, ChangeLogEntry.EntityType.USER,
+                ids -> userRepository.findDTOById(userId).stream().toList(), UserDTO::getId);
+        Map<Long, GlossaryDTO> glossaries = current(rows, ChangeLogEntry.EntityType.GLOSSARY,
+                ids -> glossaryRepository.findDTOsByIdIn(ids), GlossaryDTO::getId);
+        Map<Long, WordDTO> words = current(rows, ChangeLogEntry.EntityType.WORD,
+                ids -> wordRepository.findDTOsByIdIn(ids), WordDTO::getId);
+        List<ChangeDTO> changes = rows.stream()
+                .map(entry -> {
+                    ChangeDTO change = new ChangeDTO(entry);
+                    if (entry.getOp() == ChangeLogEntry.Op.UPSERT) {
+                        change.setUser(entry.getEntity() == ChangeLogEntry.EntityType.USER ? users.get(entry.getEntityId()) : null);
+                        change.setGlossary(entry.getEntity() == ChangeLogEntry.EntityType.GLOSSARY ? glossaries.get(entry.getEntityId()) : null);
+                        change.setWord(entry.getEntity() == ChangeLogEntry.EntityType.WORD ? words.get(entry.getEntityId()) : null);
+                    }
+                    return change;
+                })
+                .collect(Collectors.toList());
+        long next = rows.isEmpty() ? afterSeq : rows.get(rows.size() - 1).getSeq();
+        return new ChangesDTO(changes, encode(next), entries.hasNext(), false);
+    }
+
+    // current state of the entities an UPSERT of the page names, one select per entity type
+    private static <T> Map<Long, T> current(List<ChangeLogEntry> rows, ChangeLogEntry.EntityType entity,
+                                            Function<Set<Long>, List<T>> load, Function<T, Long> idOf) {
+        Set<Long> ids = rows.stream()
+                .filter(entry -> entry.getEntity() == entity && entry.getOp() == ChangeLogEntry.Op.UPSERT)
+                .map(ChangeLogEntry::getEntityId)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return load.apply(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    // opaque to clients, like Cursor
+    static String encode(long seq) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("s." + seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\.");
+            if (parts.length == 2 && parts[0].equals("s")) {
+                long seq = Long.parseLong(parts[1]);
+                if (seq >= 0) {
+                    return seq;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new InvalidRequestException("Invalid token " + token + ".");
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Repairs drift of the denormalized counters (Glossary.wordCount, User.glossaryCount), e.g. after a change
+ * straight in the database. Walks the glossaries and users of every shard by id, a chunk per transaction:
+ * the chunk is locked first, then the counts that are off are set from the rows. Word and glossary writes
+ * of the chunk wait meanwhile, nothing else does.
+ */
+@Slf4j
+@Component
+public class CounterReconciler {
+
+    private final GlossaryRepository glossaryRepository;
+    private final UserRepository userRepository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CounterReconciler(GlossaryRepository glossaryRepository,
+                             UserRepository userRepository,
+                             Shards shards,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${flashcards.counters.reconcile-chunk-size:500}") int chunkSize) {
+        this.glossaryRepository = glossaryRepository;
+        this.userRepository = userRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${flashcards.counters.reconcile-initial-delay-ms:600000}",
+            fixedDelayString = "${flashcards.counters.reconcile-interval-ms:3600000}")
+    public void scheduled() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("[Counters] reconciliation failed, next run in the next interval", e);
+        }
+    }
+
+    // returns the number of rows repaired
+    public int reconcile() {
+        int repaired = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            repaired += shards.on(shard, () -> repairGlossaries() + repairUsers());
+        }
+        if (repaired > 0) {
+            log.warn("[Counters] repaired {} glossary and user counters", repaired);
+        }
+        return repaired;
+    }
+
+    private int repairGlossaries() {
+        return repair(afterId -> glossaryRepository.findChunkForRepair(afterId, PageRequest.ofSize(chunkSize)).stream()
+                        .map(Glossary::getId)
+                        .toList(),
+                glossaryRepository::repairWordCounts);
+    }
+
+    private int repairUsers() {
+        return repair(afterId -> userRepository.findChunkForRepair(afterId, PageRequest.ofSize(chunkSize)).stream()
+                        .map(User::getId)
+                        .toList(),
+                userRepository::repairGlossaryCounts);
+    }
+
+    private record Chunk(long lastId, int repaired) {
+    }
+
+    // lockChunk locks the next chunk after an id and returns its ids, repairChunk repairs the ids from..to
+    private int repair(Function<Long, List<Long>> lockChunk, BiFunction<Long, Long, Integer> repairChunk) {
+        int repaired = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = lockChunk.apply(from);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                long last = ids.get(ids.size() - 1);
+                return new Chunk(last, repairChunk.apply(from + 1, last));
+            });
+            if (chunk == null) {
+                return repaired;
+            }
+            afterId = chunk.lastId();
+            repaired += chunk.repaired();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position of a paged list endpoint: the sort key plus the (updatedAt, id) of the last row
+ * that was returned. Clients only see it as an opaque string.
+ */
+public record Cursor(SortKey sortKey, Instant updatedAt, Long id) {
+
+    public static final String DEFAULT_LIMIT = "50";
+    public static final int MAX_LIMIT = 500;
+
+    public enum SortKey {
+        ID, UPDATED_AT;
+
+        public static SortKey of(String sort) {
+            if (sort == null || sort.equals("id")) {
+                return ID;
+            }
+            if (sort.equals("updatedAt")) {
+                return UPDATED_AT;
+            }
+            throw new InvalidRequestException("Unknown sort " + sort + ", use id or updatedAt.");
+        }
+    }
+
+    // ids start at 1 and every row is updated after the epoch, so the first page is a range scan as well
+    public static Cursor start(SortKey sortKey) {
+        return new Cursor(sortKey, Instant.EPOCH, 0L);
+    }
+
+    public static Cursor decode(String cursor, String sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return start(SortKey.of(sort));
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\.");
+            if (parts.length == 2 && parts[0].equals("i")) {
+                return new Cursor(SortKey.ID, Instant.EPOCH, Long.parseLong(parts[1]));
+            }
+            if (parts.length == 4 && parts[0].equals("u")) {
+                Instant updatedAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                return new Cursor(SortKey.UPDATED_AT, updatedAt, Long.parseLong(parts[3]));
+            }
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            // fall through
+        }
+        throw new InvalidRequestException("Invalid cursor " + cursor + ".");
+    }
+
+    public static Pageable page(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        // always page 0: the cursor does the skipping, so no OFFSET is rendered
+        return PageRequest.ofSize(limit);
+    }
+
+    public Cursor next(Instant lastUpdatedAt, Long lastId) {
+        return new Cursor(sortKey, lastUpdatedAt, lastId);
+    }
+
+    public String encode() {
+        String raw = sortKey == SortKey.ID
+                ? "i." + id
+                : "u." + updatedAt.getEpochSecond() + "." + updatedAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
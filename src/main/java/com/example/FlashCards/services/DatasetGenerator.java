@@ -0,0 +1,284 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.datasources.ShardDirectory;
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.utils.Sequences;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty database with users, glossaries and words for local tests at scale (see Preload).
+ * <p>
+ * Names follow a Zipf distribution: common first and last names, topics and words come up far more often than
+ * rare ones. User names are unique ("anna.novak", "anna.novak2", ...), glossary names per user and word names per
+ * glossary, like the unique indexes want. Words are made of syllables, the frequent ones are the short ones.
+ * Creation times are spread over the last year, counters and last activity are written with the rows.
+ * <p>
+ * Plain JDBC batches with ids taken past the current sequence values, the sequences are moved behind the new ids
+ * at the end. When sharded every user goes to the shard of its name with everything it owns.
+ * Same spec and seed, same data.
+ */
+@Slf4j
+@Component
+public class DatasetGenerator {
+
+    public record Spec(int users, int glossariesPerUser, int wordsPerGlossary, String password, long seed) {
+    }
+
+    public record Result(long users, long glossaries, long words, Duration took) {
+    }
+
+    private static final int BATCH = 5_000;
+    private static final long YEAR_MS = Duration.ofDays(365).toMillis();
+
+    private static final String[] FIRST_NAMES = {"anna", "lukas", "maria", "david", "sofia", "jan", "emma", "noah",
+            "mia", "leon", "laura", "paul", "julia", "felix", "lena", "max", "sara", "tom", "nina", "ben", "clara",
+            "elias", "marta", "oskar", "ines", "hugo", "alma", "ivan", "yuki", "omar", "li", "priya", "chen", "amir"};
+    private static final String[] LAST_NAMES = {"mueller", "schmidt", "garcia", "novak", "rossi", "kowalski", "smith",
+            "martin", "bernard", "silva", "jensen", "nielsen", "weber", "wagner", "fischer", "lopez", "moreau", "horvat",
+            "ivanov", "tanaka", "kim", "nguyen", "wang", "khan", "sato", "costa", "berg", "lind", "meyer", "klein"};
+    private static final String[] TOPICS = {"Basics", "Verbs", "Food", "Travel", "Numbers", "Family", "Colors",
+            "Animals", "Weather", "Work", "House", "Body", "Clothes", "Time", "Feelings", "City", "Nature", "School",
+            "Sports", "Health", "Shopping", "Music", "Kitchen", "Irregular verbs", "Phrasal verbs", "Business",
+            "Idioms", "Adjectives", "Exam words", "Chapter 1", "Chapter 2", "Chapter 3"};
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "be", "da", "fo", "gi",
+            "ha", "ju", "ko", "le", "ma", "no", "pi", "ra", "se", "ti", "u", "wa", "ye", "zo", "an", "el", "in", "or",
+            "us", "ber", "ten", "sch", "str", "qu", "ling", "mar", "tor", "ven", "tion", "ment", "nes", "ul", "et",
+            "at", "is", "om", "ar", "en"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final ShardDirectory shardDirectory;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, Shards shards, ShardDirectory shardDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.shardDirectory = shardDirectory;
+    }
+
+    public boolean empty() {
+        return shards.query(() -> jdbcTemplate.queryForObject("select count(*) from users", Long.class)).stream()
+                .allMatch(count -> count == 0);
+    }
+
+    public Result generate(Spec spec) {
+        if (!empty()) {
+            throw new IllegalStateException("The dataset generator only fills an empty database.");
+        }
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        Zipf firstNames = new Zipf(FIRST_NAMES.length, 0.8);
+        Zipf lastNames = new Zipf(LAST_NAMES.length, 0.8);
+        Zipf topics = new Zipf(TOPICS.length, 1.0);
+        // a vocabulary well larger than a glossary, so most draws are new to it
+        Zipf vocabulary = new Zipf(Math.max(50_000, spec.wordsPerGlossary() * 4), 1.0);
+        long now = Instant.now().toEpochMilli();
+
+        Writer[] writers = new Writer[shards.count()];
+        for (int shard = 0; shard < writers.length; shard++) {
+            writers[shard] = new Writer(shard);
+        }
+        Map<String, Integer> userNames = new HashMap<>();
+        Map<String, Integer> glossaryNames = new HashMap<>();
+        Set<String> wordNames = new HashSet<>();
+        long words = 0;
+
+        for (int u = 0; u < spec.users(); u++) {
+            String userName = unique(userNames,
+                    FIRST_NAMES[firstNames.next(random)] + "." + LAST_NAMES[lastNames.next(random)], "");
+            Writer writer = writers[shardDirectory.sharded() ? shardDirectory.shardOfName(userName) : 0];
+            long userId = writer.nextUserId++;
+            long userCreated = now - random.nextLong(YEAR_MS);
+
+            // the times of the glossaries first, the user row carries the latest activity
+            long[] glossaryCreated = new long[spec.glossariesPerUser()];
+            long[] glossaryActivity = new long[spec.glossariesPerUser()];
+            long userActivity = userCreated;
+            for (int g = 0; g < glossaryCreated.length; g++) {
+                glossaryCreated[g] = between(random, userCreated, now);
+                glossaryActivity[g] = spec.wordsPerGlossary() == 0 ? glossaryCreated[g] : between(random, glossaryCreated[g], now);
+                userActivity = Math.max(userActivity, glossaryActivity[g]);
+            }
+            writer.users.add(new Object[]{userId, userName, spec.password(), time(userCreated), time(userCreated),
+                    time(userActivity), (long) glossaryCreated.length, time(userActivity)});
+
+            glossaryNames.clear();
+            for (int g = 0; g < glossaryCreated.length; g++) {
+                long glossaryId = writer.nextGlossaryId++;
+                writer.glossaries.add(new Object[]{glossaryId, unique(glossaryNames, TOPICS[topics.next(random)], " "),
+                        userId, time(glossaryCreated[g]), time(glossaryCreated[g]), time(glossaryActivity[g]),
+                        (long) spec.wordsPerGlossary(), time(glossaryActivity[g])});
+
+                wordNames.clear();
+                for (int w = 0; w < spec.wordsPerGlossary(); w++) {
+                    // the last word is the latest activity of the glossary
+                    long created = w == spec.wordsPerGlossary() - 1
+                            ? glossaryActivity[g]
+                            : between(random, glossaryCreated[g], glossaryActivity[g]);
+                    writer.words.add(new Object[]{writer.nextWordId++, wordName(vocabulary, random, wordNames),
+                            glossaryId, time(created), time(created)});
+                    if (writer.words.size() >= BATCH) {
+                        writer.flush();
+                    }
+                }
+                words += spec.wordsPerGlossary();
+            }
+            if (writer.users.size() + writer.glossaries.size() >= BATCH) {
+                writer.flush();
+            }
+            if ((u + 1) % 10_000 == 0) {
+                log.info("[Dataset] {} users, {} words", u + 1, words);
+            }
+        }
+        for (Writer writer : writers) {
+            writer.flush();
+            writer.moveSequences();
+        }
+        Result result = new Result(spec.users(), (long) spec.users() * spec.glossariesPerUser(), words,
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("[Dataset] generated {} users, {} glossaries and {} words in {} s",
+                result.users(), result.glossaries(), result.words(), result.took().toSeconds());
+        return result;
+    }
+
+    // the rows of one shard, written in foreign key order: users, glossaries, words
+    private class Writer {
+        final int shard;
+        final List<Object[]> users = new ArrayList<>();
+        final List<Object[]> glossaries = new ArrayList<>();
+        final List<Object[]> words = new ArrayList<>(BATCH);
+        final long firstUserId;
+        final long firstGlossaryId;
+        final long firstWordId;
+        long nextUserId;
+        long nextGlossaryId;
+        long nextWordId;
+
+        Writer(int shard) {
+            this.shard = shard;
+            // past the block a pooled optimizer may hold already
+            long[] next = shards.on(shard, () -> jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> new long[]{
+                    Sequences.next(connection, "users_seq") + 1,
+                    Sequences.next(connection, "glossaries_seq") + 1,
+                    Sequences.next(connection, "words_seq") + 1}));
+            firstUserId = nextUserId = next[0];
+            firstGlossaryId = nextGlossaryId = next[1];
+            firstWordId = nextWordId = next[2];
+        }
+
+        void flush() {
+            shards.on(shard, () -> {
+                if (!users.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO users (user_id, name, password, created_at, updated_at, "
+                            + "glossaries_modified_at, glossary_count, last_activity_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+                }
+                if (!glossaries.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO glossaries (glossary_id, name, user_id, created_at, updated_at, "
+                            + "words_modified_at, word_count, last_activity_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", glossaries);
+                }
+                if (!words.isEmpty()) {
+                    jdbcTemplate.batchUpdate("INSERT INTO words (word_id, name, glossary_id, created_at, updated_at) "
+                            + "VALUES (?, ?, ?, ?, ?)", words);
+                }
+                return null;
+            });
+            users.clear();
+            glossaries.clear();
+            words.clear();
+        }
+
+        void moveSequences() {
+            shards.on(shard, () -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                move(connection, "users_seq", firstUserId, nextUserId);
+                move(connection, "glossaries_seq", firstGlossaryId, nextGlossaryId);
+                move(connection, "words_seq", firstWordId, nextWordId);
+                return null;
+            }));
+        }
+
+        private void move(Connection connection, String sequence, long firstId, long nextId) throws SQLException {
+            if (nextId > firstId) {
+                // the next block handed out starts at nextId
+                Sequences.moveTo(connection, sequence, nextId - 1 + Sequences.ALLOCATION_SIZE);
+            }
+        }
+    }
+
+    // base, then base + separator + 2, 3, ... for the next ones
+    private static String unique(Map<String, Integer> seen, String base, String separator) {
+        int count = seen.merge(base, 1, Integer::sum);
+        return count == 1 ? base : base + separator + count;
+    }
+
+    private static String wordName(Zipf vocabulary, SplittableRandom random, Set<String> taken) {
+        for (int attempt = 0; attempt < 8; attempt++) {
+            String name = syllables(vocabulary.next(random));
+            if (taken.add(name)) {
+                return name;
+            }
+        }
+        // the glossary has most of the common words already, take the first free rare one
+        for (long rank = vocabulary.size(); ; rank++) {
+            String name = syllables(rank);
+            if (taken.add(name)) {
+                return name;
+            }
+        }
+    }
+
+    // rank in base SYLLABLES.length, at least two syllables: low ranks are short words
+    static String syllables(long rank) {
+        StringBuilder name = new StringBuilder();
+        for (long n = rank + SYLLABLES.length; n > 0; n /= SYLLABLES.length) {
+            name.append(SYLLABLES[(int) (n % SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    private static long between(SplittableRandom random, long from, long to) {
+        return to > from ? from + random.nextLong(to - from) : from;
+    }
+
+    private static Timestamp time(long epochMilli) {
+        return new Timestamp(epochMilli);
+    }
+
+    // ranks 0..size-1, rank r with a weight of 1 / (r + 1)^exponent
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int size, double exponent) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+        }
+
+        int size() {
+            return cumulative.length;
+        }
+
+        int next(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
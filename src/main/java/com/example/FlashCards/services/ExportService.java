@@ -0,0 +1,99 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes all data of a user as NDJSON: the user, then every glossary followed by its words, one object per line.
+ * <p>
+ * Rows come from a forward-only cursor and go straight to the output; the persistence context is cleared
+ * every {@link #CLEAR_EVERY} rows, so memory doesn't grow with the number of words.
+ */
+@Timed("flashcards.service")
+@Service
+public class ExportService {
+
+    static final int CLEAR_EVERY = 1000;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // Spring's @Transactional for readOnly (no flushes, read-only connection). Called from the
+    // StreamingResponseBody on the async thread, the transaction and the cursor live there.
+    @Transactional(readOnly = true)
+    public void export(@ShardKey Long userId, OutputStream out) throws IOException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<Object[]> rows = glossaryRepository.streamWithWordsByUserId(userId)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            generator.writeStartObject();
+            writeCommon(generator, "user", user.getId(), user.getName(), user.getCreatedAt(), user.getUpdatedAt());
+            generator.writeEndObject();
+            entityManager.detach(user);
+
+            Long glossaryId = null;
+            int count = 0;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                Glossary glossary = (Glossary) row[0];
+                Word word = (Word) row[1];
+
+                if (!glossary.getId().equals(glossaryId)) {
+                    glossaryId = glossary.getId();
+                    generator.writeStartObject();
+                    writeCommon(generator, "glossary", glossaryId, glossary.getName(), glossary.getCreatedAt(), glossary.getUpdatedAt());
+                    generator.writeEndObject();
+                }
+                if (word != null) {
+                    generator.writeStartObject();
+                    writeCommon(generator, "word", word.getId(), word.getName(), word.getCreatedAt(), word.getUpdatedAt());
+                    generator.writeNumberField("glossaryId", glossaryId);
+                    generator.writeEndObject();
+                }
+                if (++count % CLEAR_EVERY == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    private static void writeCommon(JsonGenerator generator, String type, Long id, String name,
+                                    Instant createdAt, Instant updatedAt) throws IOException {
+        generator.writeStringField("type", type);
+        generator.writeNumberField("id", id);
+        generator.writeStringField("name", name);
+        generator.writeStringField("createdAt", createdAt == null ? null : createdAt.toString());
+        generator.writeStringField("updatedAt", updatedAt == null ? null : updatedAt.toString());
+    }
+}
@@ -1,21 +1,34 @@
 package com.example.FlashCards.services;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
 import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
+import com.example.FlashCards.caches.ResponseCache;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.datasources.ReplicaRead;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.entities.ChangeLogEntry;
 import com.example.FlashCards.entities.Glossary;
 import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.ConflictException;
 import com.example.FlashCards.exceptions.NotFoundException;
 import com.example.FlashCards.repositories.GlossaryRepository;
 import com.example.FlashCards.repositories.UserRepository;
-import jakarta.transaction.Transactional;
+import com.example.FlashCards.repositories.WordRepository;
+import com.example.FlashCards.search.WordSearchIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
+@Timed("flashcards.service")
 @Transactional
 @Service
 public class GlossaryService {
@@ -26,52 +39,135 @@ public class GlossaryService {
     @Autowired
     GlossaryRepository glossaryRepository;
 
+    @Autowired
+    WordRepository wordRepository;
+
     @Autowired
     Entity2DTOMapper modelMapper;
 
-    public List<GlossaryDTO> getAllGlossaries(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
+    @Autowired
+    ResponseCache responseCache;
+
+    @Autowired
+    WordSearchIndex wordSearchIndex;
+
+    @Autowired
+    ChangeLogService changeLogService;
+
+    // readOnly DTO projections, see WordService.getAllWords
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<GlossaryDTO> getAllGlossaries(@ShardKey Long userId) {
+        List<GlossaryDTO> foundGlossaries = glossaryRepository.findDTOsByUserId(userId);
+        if (foundGlossaries.isEmpty() && !userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id " + userId + " is not found.");
+        }
+        return foundGlossaries;
+    }
 
-        List<Glossary> foundGlossaries = glossaryRepository.findByUserId(user.getId());
-        return foundGlossaries.stream()
-                .map(glossary -> modelMapper.map(glossary, GlossaryDTO.class))
-                .collect(Collectors.toList());
+    // not @ReplicaRead, see WordService.getWords
+    @Transactional(readOnly = true)
+    public SliceDTO<GlossaryDTO> getGlossaries(@ShardKey Long userId, String cursor, int limit, String sort) {
+        Cursor after = Cursor.decode(cursor, sort);
+        Slice<GlossaryDTO> foundGlossaries = after.sortKey() == Cursor.SortKey.UPDATED_AT
+                ? glossaryRepository.findSliceByUserIdOrderByUpdatedAt(userId, after.updatedAt(), after.id(), Cursor.page(limit))
+                : glossaryRepository.findSliceByUserId(userId, after.id(), Cursor.page(limit));
+
+        if (!foundGlossaries.hasContent() && (cursor == null || cursor.isEmpty()) && !userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id " + userId + " is not found.");
+        }
+        return SliceDTO.of(foundGlossaries,
+                glossaryDTO -> glossaryDTO,
+                glossaryDTO -> after.next(glossaryDTO.getUpdatedAt(), glossaryDTO.getId()).encode());
     }
 
-    public GlossaryDTO getGlossaryById(Long glossaryId) {
-        Glossary foundGlossary = glossaryRepository.findById(glossaryId)
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public GlossaryDTO getGlossaryById(@ShardKey Long glossaryId) {
+        return glossaryRepository.findDTOById(glossaryId)
                 .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
-        return modelMapper.map(foundGlossary, GlossaryDTO.class);
     }
 
-    public GlossaryDTO addGlossary(Long userId, GlossaryDTO glossaryDTO) {
+    // ETag/Last-Modified of the glossary list, see WordService.getWordsVersion
+    @Transactional(readOnly = true)
+    public ListVersionDTO getGlossariesVersion(@ShardKey Long userId) {
+        return userRepository.findGlossariesVersion(userId)
+                .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
+    }
+
+    public GlossaryDTO addGlossary(@ShardKey Long userId, GlossaryDTO glossaryDTO) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
 
-        Glossary glossary = modelMapper.map(glossaryDTO, Glossary.class);
+        Glossary glossary = modelMapper.toEntity(glossaryDTO);
         glossary.setUser(user);
 
         Glossary savedGlossary = glossaryRepository.save(glossary);
+        Instant now = Instant.now();
+        userRepository.bumpGlossariesVersion(userId, 1, now);
+        changeLogService.record(userId, ChangeLogEntry.glossary(savedGlossary.getId(), ChangeLogEntry.Op.UPSERT, now));
 
-        return modelMapper.map(savedGlossary, GlossaryDTO.class);
+        return modelMapper.toDTO(savedGlossary);
     }
 
     // This method calls GlossaryRepository twice, should indeed be @Transactional
-    public GlossaryDTO updateGlossary(GlossaryDTO glossaryDTO, Long glossaryId) {
+    public GlossaryDTO updateGlossary(GlossaryDTO glossaryDTO, @ShardKey Long glossaryId) {
         Glossary existingGlossary = glossaryRepository.findById(glossaryId)
                 .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
 
         existingGlossary.setName(glossaryDTO.getName());
         Glossary savedGlossary = glossaryRepository.save(existingGlossary);
-        return modelMapper.map(savedGlossary, GlossaryDTO.class);
+        // cached words and word lists embed the glossary as well
+        Instant now = Instant.now();
+        userRepository.bumpGlossariesVersion(existingGlossary.getUser().getId(), 0, now);
+        glossaryRepository.bumpWordsVersion(glossaryId, 0, now);
+        changeLogService.record(existingGlossary.getUser().getId(), ChangeLogEntry.glossary(glossaryId, ChangeLogEntry.Op.UPSERT, now));
+        responseCache.evictGlossary(glossaryId);
+        return modelMapper.toDTO(savedGlossary);
+    }
+
+    // PATCH: one conditional update of the glossary, then the same list versions as updateGlossary. Only the user id
+    // of the glossary is read, for its change log.
+    public void patchGlossary(GlossaryDTO glossaryDTO, @ShardKey Long glossaryId) {
+        Patch.check(glossaryDTO.getName(), glossaryDTO.getVersion());
+        Long userId = glossaryRepository.findUserIdById(glossaryId)
+                .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
+        Instant now = Instant.now();
+        int updated = Patch.rename(() -> glossaryRepository.renameIfVersion(glossaryId, glossaryDTO.getVersion(), glossaryDTO.getName(), now),
+                "Glossary with name " + glossaryDTO.getName() + " already exists.");
+        if (updated == 0) {
+            throw new ConflictException("Glossary with id " + glossaryId + " was changed, version " + glossaryDTO.getVersion() + " is not current.");
+        }
+        userRepository.bumpGlossariesVersion(userId, 0, now);
+        glossaryRepository.bumpWordsVersion(glossaryId, 0, now);
+        changeLogService.record(userId, ChangeLogEntry.glossary(glossaryId, ChangeLogEntry.Op.UPSERT, now));
+        responseCache.evictGlossary(glossaryId);
     }
 
-    public void deleteGlossary(Long glossaryId) {
-        glossaryRepository.deleteById(glossaryId);
+    // children first, two statements however many words the glossary has. One tombstone for the glossary and its words.
+    public DeleteResultDTO deleteGlossary(@ShardKey Long glossaryId) {
+        glossaryRepository.findById(glossaryId).ifPresent(glossary -> {
+            Instant now = Instant.now();
+            userRepository.bumpGlossariesVersion(glossary.getUser().getId(), -1, now);
+            changeLogService.record(glossary.getUser().getId(), ChangeLogEntry.glossary(glossaryId, ChangeLogEntry.Op.DELETE, now));
+            wordSearchIndex.removeGlossary(glossary.getUser().getId(), glossaryId);
+        });
+        int words = wordRepository.deleteAllByGlossaryId(glossaryId);
+        int glossaries = glossaryRepository.deleteByIdInBulk(glossaryId);
+        responseCache.evictGlossary(glossaryId);
+        return new DeleteResultDTO(0, glossaries, words);
     }
 
-    public void deleteAllGlossariesByUser(Long userId) {
-        glossaryRepository.deleteAllByUserId(userId);
+    public DeleteResultDTO deleteAllGlossariesByUser(@ShardKey Long userId) {
+        int words = wordRepository.deleteAllByUserId(userId);
+        int glossaries = glossaryRepository.deleteAllByUserId(userId);
+        Instant now = Instant.now();
+        userRepository.bumpGlossariesVersion(userId, -glossaries, now);
+        if (glossaries > 0) {
+            changeLogService.record(userId, ChangeLogEntry.user(userId, ChangeLogEntry.Op.CLEAR, now));
+        }
+        responseCache.evictUser(userId);
+        wordSearchIndex.invalidate(userId);
+        return new DeleteResultDTO(0, glossaries, words);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.function.IntSupplier;
+
+// shared by the PATCH methods of the services: a rename that only goes through at the version the client read
+final class Patch {
+
+    private Patch() {
+    }
+
+    static void check(String name, Long version) {
+        if (name == null || name.isBlank()) {
+            throw new InvalidRequestException("Name is empty.");
+        }
+        if (version == null) {
+            throw new InvalidRequestException("Version is null, PATCH needs the version that was read.");
+        }
+    }
+
+    // runs the conditional update, a name that is taken comes back from the unique index
+    static int rename(IntSupplier update, String nameTaken) {
+        try {
+            return update.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidRequestException(nameTaken);
+        }
+    }
+}
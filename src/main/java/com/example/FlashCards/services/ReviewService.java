@@ -0,0 +1,86 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.ReviewCardDTO;
+import com.example.FlashCards.DTOs.ReviewDTO;
+import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.entities.ReviewCard;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Timed("flashcards.service")
+@Transactional
+@Service
+public class ReviewService {
+
+    static final double MIN_EASE = 1.3;
+
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    Entity2DTOMapper modelMapper;
+
+    @Transactional(readOnly = true)
+    public List<ReviewCardDTO> getDueCards(@ShardKey Long userId, int limit) {
+        List<ReviewCard> dueCards = reviewCardRepository.findDue(userId, Instant.now(), Cursor.page(limit));
+
+        // nothing due is the common case, only then check the user
+        if (dueCards.isEmpty()) {
+            userRepository.findById(userId)
+                    .orElseThrow(() -> new NotFoundException("User with id " + userId + " is not found."));
+        }
+        return dueCards.stream()
+                .map(card -> modelMapper.toDTO(card))
+                .collect(Collectors.toList());
+    }
+
+    public ReviewCardDTO answer(@ShardKey("wordId") ReviewDTO reviewDTO) {
+        if (reviewDTO.getWordId() == null) {
+            throw new InvalidRequestException("Word id is null.");
+        }
+        if (reviewDTO.getGrade() == null || reviewDTO.getGrade() < 0 || reviewDTO.getGrade() > 5) {
+            throw new InvalidRequestException("Grade must be between 0 and 5.");
+        }
+        ReviewCard card = reviewCardRepository.findForAnswer(reviewDTO.getWordId())
+                .orElseThrow(() -> new NotFoundException("Card of word with id " + reviewDTO.getWordId() + " is not found."));
+
+        schedule(card, reviewDTO.getGrade(), Instant.now());
+        return modelMapper.toDTO(card);
+    }
+
+    // SM-2: a failed card starts over with a 1 day interval, a passed one grows by its ease
+    static void schedule(ReviewCard card, int grade, Instant now) {
+        if (grade < 3) {
+            card.setRepetitions(0);
+            card.setLapses(card.getLapses() + 1);
+            card.setIntervalDays(1);
+        } else {
+            card.setRepetitions(card.getRepetitions() + 1);
+            if (card.getRepetitions() == 1) {
+                card.setIntervalDays(1);
+            } else if (card.getRepetitions() == 2) {
+                card.setIntervalDays(6);
+            } else {
+                card.setIntervalDays((int) Math.round(card.getIntervalDays() * card.getEase()));
+            }
+        }
+        int miss = 5 - grade;
+        card.setEase(Math.max(MIN_EASE, card.getEase() + 0.1 - miss * (0.08 + miss * 0.02)));
+        card.setLastReviewedAt(now);
+        card.setDueAt(now.plus(Duration.ofDays(card.getIntervalDays())));
+    }
+}
@@ -1,52 +1,93 @@
 package com.example.FlashCards.services;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.caches.ResponseCache;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.datasources.ReplicaRead;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.entities.ChangeLogEntry;
 import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.ConflictException;
 import com.example.FlashCards.exceptions.InvalidRequestException;
 import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
 import com.example.FlashCards.repositories.UserRepository;
-import jakarta.transaction.Transactional;
+import com.example.FlashCards.repositories.WordRepository;
+import com.example.FlashCards.search.WordSearchIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
+@Timed("flashcards.service")
 @Transactional
 @Service
 public class UserService {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
 
     @Autowired
     Entity2DTOMapper modelMapper;
 
-    public UserDTO add(UserDTO userDTO) {
+    @Autowired
+    ResponseCache responseCache;
+
+    @Autowired
+    WordSearchIndex wordSearchIndex;
+
+    @Autowired
+    Shards shards;
+
+    @Autowired
+    ChangeLogService changeLogService;
+
+    public UserDTO add(@ShardKey("name") UserDTO userDTO) {
         // user id IS null now! The savedUser id IS NOT null!
-        if (userRepository.findByName(userDTO.getName()).isPresent()) {
+        if (nameTaken(userDTO.getName(), null)) {
             throw new InvalidRequestException("User with username " + userDTO.getName() + " already exists.");
         }
 
-        User user = modelMapper.map(userDTO, User.class);
+        User user = modelMapper.toEntity(userDTO);
 
         User savedUser = userRepository.save(user);
-        log.info("[User] added " + savedUser.toString());
-        return modelMapper.map(savedUser, UserDTO.class);
+        log.info("[User] added {}", savedUser);
+        return modelMapper.toDTO(savedUser);
     }
 
-    public boolean login(UserDTO userDTO) {
-        Optional<User> optionalUser = userRepository.findByName(userDTO.getName());
-        boolean success = optionalUser.map(user -> user.getPassword().equals(userDTO.getPassword())).orElse(false);
-        log.info(userDTO.getName() + (success ? " logs in successfully." : " can't log in."));
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public boolean login(@ShardKey("name") UserDTO userDTO) {
+        boolean success = findByName(userDTO.getName(), userRepository::findPasswordByName)
+                .map(password -> password.equals(userDTO.getPassword()))
+                .orElse(false);
+        log.info("{} {}", userDTO.getName(), success ? "logs in successfully." : "can't log in.");
         return success;
     }
 
-    public void deleteById(Long id) {
+    public DeleteResultDTO deleteById(@ShardKey Long id) {
         // check user
         if (id == null) {
             throw new InvalidRequestException("User id is null.");
@@ -57,29 +98,57 @@ public class UserService {
             throw new InvalidRequestException("User with id " + id + " doesn't exist.");
         }
 
-        userRepository.deleteById(id);
+        // words, glossaries, user: three statements instead of a cascade that deletes row by row
+        int words = wordRepository.deleteAllByUserId(id);
+        int glossaries = glossaryRepository.deleteAllByUserId(id);
+        int users = userRepository.deleteByIdInBulk(id);
+        responseCache.evictUser(id);
+        wordSearchIndex.invalidate(id);
+        return new DeleteResultDTO(users, glossaries, words);
     }
 
-    public UserDTO getUserById(Long id) {
-        User user = userRepository.findById(id)
+    // readOnly DTO projections, see WordService.getAllWords
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public UserDTO getUserById(@ShardKey Long id) {
+        return userRepository.findDTOById(id)
                 .orElseThrow(() -> new NotFoundException("User with id " + id + " is not found."));
-        return modelMapper.map(user, UserDTO.class);
     }
 
-    public UserDTO getUserByName(String name) {
-        User user = userRepository.findByName(name)
+    @Transactional(readOnly = true)
+    public UserDTO getUserByName(@ShardKey String name) {
+        return findByName(name, userRepository::findDTOByName)
                 .orElseThrow(() -> new NotFoundException("User with name " + name + " is not found."));
-        return modelMapper.map(user, UserDTO.class);
     }
 
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public List<UserDTO> getAllUsers() {
-        List<User> allUsers = userRepository.findAll();
-        return allUsers.stream()
-                .map(user -> modelMapper.map(user, UserDTO.class))
-                .collect(Collectors.toList());
+        if (!shards.sharded()) {
+            return userRepository.findAllDTOs();
+        }
+        // merged by id, a page per shard at a time
+        List<UserDTO> users = new ArrayList<>();
+        Pageable page = Cursor.page(Cursor.MAX_LIMIT);
+        shards.merge(Comparator.comparing(UserDTO::getId), Cursor.MAX_LIMIT,
+                (UserDTO last) -> userRepository.findSlice(last == null ? 0L : last.getId(), page).getContent())
+                .forEachRemaining(users::add);
+        return users;
     }
 
-    public UserDTO updateUser(UserDTO userDTO, Long userId) {
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public SliceDTO<UserDTO> getUsers(String cursor, int limit, String sort) {
+        Cursor after = Cursor.decode(cursor, sort);
+        Slice<UserDTO> foundUsers = shards.sharded()
+                ? mergeSlices(after, limit)
+                : findSlice(after, Cursor.page(limit));
+        return SliceDTO.of(foundUsers,
+                userDTO -> userDTO,
+                userDTO -> after.next(userDTO.getUpdatedAt(), userDTO.getId()).encode());
+    }
+
+    public UserDTO updateUser(UserDTO userDTO, @ShardKey Long userId) {
         // check user
         if (userId == null) {
             throw new InvalidRequestException("User id is null.");
@@ -92,10 +161,88 @@ public class UserService {
         }
 
         User existingUser = optionalUser.get();
+        // one database enforces unique names, across shards they are checked here
+        if (shards.sharded() && nameTaken(userDTO.getName(), userId)) {
+            throw new InvalidRequestException("User with username " + userDTO.getName() + " already exists.");
+        }
         existingUser.setName(userDTO.getName());
         existingUser.setPassword(userDTO.getPassword());
 //        existingUser.setGlossaries(user.getGlossaries());//user doesn't update glossaries => glossary updates user
         User updatedUser = userRepository.save(existingUser);
-        return modelMapper.map(updatedUser, UserDTO.class);
+        // a renamed user shows up inside every cached glossary and word of that user, and in their lists
+        Instant now = Instant.now();
+        userRepository.bumpGlossariesVersion(userId, 0, now);
+        glossaryRepository.bumpWordsVersionByUserId(userId, now);
+        changeLogService.record(userId, ChangeLogEntry.user(userId, ChangeLogEntry.Op.UPSERT, now));
+        responseCache.evictUser(userId);
+        return modelMapper.toDTO(updatedUser);
+    }
+
+    // PATCH: the name only, see GlossaryService.patchGlossary. The password is changed with PUT.
+    public void patchUser(UserDTO userDTO, @ShardKey Long userId) {
+        Patch.check(userDTO.getName(), userDTO.getVersion());
+        String taken = "User with username " + userDTO.getName() + " already exists.";
+        if (shards.sharded() && nameTaken(userDTO.getName(), userId)) {
+            throw new InvalidRequestException(taken);
+        }
+        Instant now = Instant.now();
+        int updated = Patch.rename(() -> userRepository.renameIfVersion(userId, userDTO.getVersion(), userDTO.getName(), now), taken);
+        if (updated == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException("User with id " + userId + " is not found.");
+            }
+            throw new ConflictException("User with id " + userId + " was changed, version " + userDTO.getVersion() + " is not current.");
+        }
+        userRepository.bumpGlossariesVersion(userId, 0, now);
+        glossaryRepository.bumpWordsVersionByUserId(userId, now);
+        changeLogService.record(userId, ChangeLogEntry.user(userId, ChangeLogEntry.Op.UPSERT, now));
+        responseCache.evictUser(userId);
+    }
+
+    private Slice<UserDTO> findSlice(Cursor after, Pageable page) {
+        return after.sortKey() == Cursor.SortKey.UPDATED_AT
+                ? userRepository.findSliceOrderByUpdatedAt(after.updatedAt(), after.id(), page)
+                : userRepository.findSlice(after.id(), page);
+    }
+
+    // the first limit + 1 users of the merged order, every shard reads at most one page of limit + 1
+    private Slice<UserDTO> mergeSlices(Cursor after, int limit) {
+        Pageable page = Cursor.page(limit);
+        Comparator<UserDTO> order = after.sortKey() == Cursor.SortKey.UPDATED_AT
+                ? Comparator.comparing(UserDTO::getUpdatedAt).thenComparing(UserDTO::getId)
+                : Comparator.comparing(UserDTO::getId);
+        Iterator<UserDTO> merged = shards.merge(order, limit + 1, (UserDTO last) -> last != null
+                ? List.of()// one page is enough
+                : findSlice(after, PageRequest.ofSize(limit + 1)).getContent());
+        List<UserDTO> users = new ArrayList<>(limit + 1);
+        while (merged.hasNext() && users.size() <= limit) {
+            users.add(merged.next());
+        }
+        boolean hasNext = users.size() > limit;
+        return new SliceImpl<>(hasNext ? users.subList(0, limit) : users, page, hasNext);
+    }
+
+    // Names are unique per database, across shards every shard is asked. Users are placed by name,
+    // so the shard of the name is the one to ask first, see findByName.
+    // exceptId is the user being renamed, its own name doesn't count
+    private boolean nameTaken(String name, Long exceptId) {
+        Supplier<Boolean> taken = () -> userRepository.findIdByName(name)
+                .filter(id -> !id.equals(exceptId))
+                .isPresent();
+        if (!shards.sharded()) {
+            return taken.get();
+        }
+        return shards.query(taken).contains(true);
+    }
+
+    // on the shard of the name (the current one), else on every shard: a renamed user stays where it was placed
+    private <T> Optional<T> findByName(String name, Function<String, Optional<T>> finder) {
+        Optional<T> found = finder.apply(name);
+        if (found.isPresent() || !shards.sharded()) {
+            return found;
+        }
+        return shards.query(() -> finder.apply(name)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
     }
 }
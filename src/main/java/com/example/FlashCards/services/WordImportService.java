@@ -0,0 +1,133 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.BulkImportResultDTO;
+import com.example.FlashCards.DTOs.BulkImportResultDTO.Item;
+import com.example.FlashCards.DTOs.BulkImportResultDTO.Status;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a JSON array of words from the request stream and hands them to WordService in chunks,
+ * so neither the whole body nor the whole import ever sits in memory or in one transaction.
+ * Not @Transactional on purpose: every chunk commits on its own.
+ */
+@Slf4j
+@Service
+public class WordImportService {
+
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${flashcards.words.bulk.chunk-size:1000}")
+    int chunkSize;
+
+    public BulkImportResultDTO importWords(@ShardKey Long glossaryId, InputStream body) throws IOException {
+        glossaryRepository.findById(glossaryId)
+                .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
+
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        Set<String> namesInRequest = new HashSet<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("Expected a JSON array of words.");
+            }
+            int index = 0;
+            try {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    WordDTO wordDTO = objectMapper.readValue(parser, WordDTO.class);
+                    result.setReceived(result.getReceived() + 1);
+                    String name = wordDTO.getName();
+
+                    if (name == null || name.isBlank()) {
+                        result.add(new Item(index, name, null, Status.REJECTED, "Name is missing."));
+                    } else if (!namesInRequest.add(name)) {
+                        result.add(new Item(index, name, null, Status.REJECTED, "Name appears more than once in the request."));
+                    } else {
+                        chunk.add(new Item(index, name, null, null, null));
+                        if (chunk.size() == chunkSize) {
+                            importChunk(glossaryId, chunk, result);
+                            chunk.clear();
+                        }
+                    }
+                    index++;
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    result.setError("Item " + index + " is not a JSON object, stopped reading.");
+                }
+            } catch (JsonProcessingException e) {
+                result.setError("Malformed JSON at item " + index + ", stopped reading: " + e.getOriginalMessage());
+            }
+        }
+        importChunk(glossaryId, chunk, result);
+        return result;
+    }
+
+    private void importChunk(Long glossaryId, List<Item> chunk, BulkImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // names are unique within a glossary, one IN query per chunk instead of a lookup per word
+        Set<String> existingNames = new HashSet<>(wordRepository.findNamesInGlossary(glossaryId,
+                chunk.stream().map(Item::getName).toList()));
+
+        List<Item> toInsert = new ArrayList<>(chunk.size());
+        for (Item item : chunk) {
+            if (existingNames.contains(item.getName())) {
+                item.setStatus(Status.REJECTED);
+                item.setMessage("Word with name " + item.getName() + " already exists.");
+                result.add(item);
+            } else {
+                toInsert.add(item);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> ids = wordService.addWords(glossaryId, toInsert.stream().map(Item::getName).toList());
+            for (int i = 0; i < toInsert.size(); i++) {
+                Item item = toInsert.get(i);
+                item.setId(ids.get(i));
+                item.setStatus(Status.CREATED);
+                result.add(item);
+            }
+        } catch (RuntimeException e) {
+            // the whole chunk was rolled back, report it and carry on with the next one
+            log.warn("[Word] bulk import of {} words into glossary {} failed", toInsert.size(), glossaryId, e);
+            for (Item item : toInsert) {
+                item.setStatus(Status.FAILED);
+                item.setMessage(e.getMessage());
+                result.add(item);
+            }
+        }
+    }
+}
@@ -1,73 +1,237 @@
 package com.example.FlashCards.services;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.DTOs.WordHitDTO;
+import com.example.FlashCards.caches.ResponseCache;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.datasources.ReplicaRead;
+import com.example.FlashCards.datasources.ShardKey;
+import com.example.FlashCards.entities.ChangeLogEntry;
 import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.ReviewCard;
 import com.example.FlashCards.entities.Word;
+import com.example.FlashCards.exceptions.ConflictException;
+import com.example.FlashCards.exceptions.InvalidRequestException;
 import com.example.FlashCards.exceptions.NotFoundException;
 import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import com.example.FlashCards.repositories.UserRepository;
 import com.example.FlashCards.repositories.WordRepository;
-import jakarta.transaction.Transactional;
+import com.example.FlashCards.search.WordSearchIndex;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+@Timed("flashcards.service")
 @Transactional
 @Service
 public class WordService {
 
+    @Autowired
+    UserRepository userRepository;
     @Autowired
     GlossaryRepository glossaryRepository;
     @Autowired
     WordRepository wordRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
 
     @Autowired
     Entity2DTOMapper modelMapper;
 
-    public List<WordDTO> getAllWords(Long glossaryId) {
-        Glossary glossary = glossaryRepository.findById(glossaryId)
+    @Autowired
+    ResponseCache responseCache;
+
+    @Autowired
+    WordSearchIndex wordSearchIndex;
+
+    @Autowired
+    ChangeLogService changeLogService;
+
+    // Reads are readOnly transactions on DTO projections: nothing lands in the persistence
+    // context, so there is nothing to dirty-check or flush when they commit.
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<WordDTO> getAllWords(@ShardKey Long glossaryId) {
+        List<WordDTO> foundWords = wordRepository.findDTOsByGlossaryId(glossaryId);
+        if (foundWords.isEmpty() && !glossaryRepository.existsById(glossaryId)) {
+            throw new NotFoundException("Glossary with id " + glossaryId + " is not found.");
+        }
+        return foundWords;
+    }
+
+    // Not @ReplicaRead: the controller reads the list version from the primary first (ETag), a replica
+    // that is behind could pair that version with an older page.
+    @Transactional(readOnly = true)
+    public SliceDTO<WordDTO> getWords(@ShardKey Long glossaryId, String cursor, int limit, String sort) {
+        Cursor after = Cursor.decode(cursor, sort);
+        Slice<WordDTO> foundWords = after.sortKey() == Cursor.SortKey.UPDATED_AT
+                ? wordRepository.findSliceByGlossaryIdOrderByUpdatedAt(glossaryId, after.updatedAt(), after.id(), Cursor.page(limit))
+                : wordRepository.findSliceByGlossaryId(glossaryId, after.id(), Cursor.page(limit));
+
+        // an empty first page is the only case where we need to tell "no words" from "no glossary"
+        if (!foundWords.hasContent() && (cursor == null || cursor.isEmpty()) && !glossaryRepository.existsById(glossaryId)) {
+            throw new NotFoundException("Glossary with id " + glossaryId + " is not found.");
+        }
+        return SliceDTO.of(foundWords,
+                wordDTO -> wordDTO,
+                wordDTO -> after.next(wordDTO.getUpdatedAt(), wordDTO.getId()).encode());
+    }
+
+    // ETag/Last-Modified of the word list, so GET /words/glossary/{id} can answer 304 without reading the words
+    @Transactional(readOnly = true)
+    public ListVersionDTO getWordsVersion(@ShardKey Long glossaryId) {
+        return glossaryRepository.findWordsVersion(glossaryId)
                 .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
+    }
 
-        List<Word> foundWords = wordRepository.findByGlossaryId(glossary.getId());
-        return foundWords.stream()
-                .map(word -> modelMapper.map(word, WordDTO.class))
-                .collect(Collectors.toList());
+    // words of all glossaries of the user, names starting with the query first, then names containing it
+    @Transactional(readOnly = true)
+    public List<WordHitDTO> searchWords(@ShardKey Long userId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Query is empty.");
+        }
+        if (limit < 1 || limit > Cursor.MAX_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and " + Cursor.MAX_LIMIT + ".");
+        }
+        List<WordHitDTO> hits = wordSearchIndex.search(userId, query, limit,
+                () -> wordRepository.findHitsByUserId(userId));
+
+        if (hits.isEmpty() && !userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id " + userId + " is not found.");
+        }
+        return hits;
     }
 
-    public WordDTO getWordById(Long wordId) {
-        Word foundWord = wordRepository.findById(wordId)
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public WordDTO getWordById(@ShardKey Long wordId) {
+        return wordRepository.findDTOById(wordId)
                 .orElseThrow(() -> new NotFoundException("Word with id " + wordId + " is not found."));
-        return modelMapper.map(foundWord, WordDTO.class);
     }
 
-    public WordDTO addWord(Long glossaryId, WordDTO wordDTO) {
+    public WordDTO addWord(@ShardKey Long glossaryId, WordDTO wordDTO) {
         Glossary glossary = glossaryRepository.findById(glossaryId)
                 .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
 
-        Word word = modelMapper.map(wordDTO, Word.class);
+        Word word = modelMapper.toEntity(wordDTO);
         word.setGlossary(glossary);
 
         Word savedWord = wordRepository.save(word);
+        Instant now = Instant.now();
+        reviewCardRepository.save(ReviewCard.of(savedWord, glossary.getUser(), now));
+        counted(glossary, 1, now, List.of(ChangeLogEntry.word(savedWord.getId(), glossaryId, ChangeLogEntry.Op.UPSERT, now)));
+        wordSearchIndex.add(glossary.getUser().getId(), hit(savedWord));
 
-        return modelMapper.map(savedWord, WordDTO.class);
+        return modelMapper.toDTO(savedWord);
     }
 
-    public WordDTO updateWord(WordDTO wordDTO, Long wordId) {
+    // Called once per chunk by WordImportService, each call is its own transaction and the
+    // inserts go out as JDBC batches (hibernate.jdbc.batch_size) when it commits.
+    public List<Long> addWords(@ShardKey Long glossaryId, List<String> names) {
+        // with its user, the cards need it
+        Glossary glossary = glossaryRepository.findById(glossaryId)
+                .orElseThrow(() -> new NotFoundException("Glossary with id " + glossaryId + " is not found."));
+
+        List<Word> words = wordRepository.saveAll(names.stream()
+                .map(name -> Word.builder()
+                        .name(name)
+                        .glossary(glossary)
+                        .build())
+                .collect(Collectors.toList()));
+
+        Instant now = Instant.now();
+        reviewCardRepository.saveAll(words.stream()
+                .map(word -> ReviewCard.of(word, glossary.getUser(), now))
+                .collect(Collectors.toList()));
+        counted(glossary, words.size(), now, words.stream()
+                .map(word -> ChangeLogEntry.word(word.getId(), glossaryId, ChangeLogEntry.Op.UPSERT, now))
+                .collect(Collectors.toList()));
+        wordSearchIndex.addAll(glossary.getUser().getId(), words.stream()
+                .map(word -> hit(word))
+                .collect(Collectors.toList()));
+
+        return words.stream()
+                .map(Word::getId)
+                .collect(Collectors.toList());
+    }
+
+    public WordDTO updateWord(WordDTO wordDTO, @ShardKey Long wordId) {
         Word existingWord = wordRepository.findById(wordId)
                 .orElseThrow(() -> new NotFoundException("Word with id " + wordId + " is not found."));
 
         existingWord.setName(wordDTO.getName());
         Word savedWord = wordRepository.save(existingWord);
-        return modelMapper.map(savedWord, WordDTO.class);
+        Instant now = Instant.now();
+        counted(existingWord.getGlossary(), 0, now,
+                List.of(ChangeLogEntry.word(wordId, existingWord.getGlossary().getId(), ChangeLogEntry.Op.UPSERT, now)));
+        responseCache.evictWord(wordId);
+        wordSearchIndex.add(existingWord.getGlossary().getUser().getId(), hit(savedWord));
+        return modelMapper.toDTO(savedWord);
+    }
+
+    // PATCH: rename only if the client's version is still current, see WordRepository.renameIfVersion
+    public void patchWord(WordDTO wordDTO, @ShardKey Long wordId) {
+        Patch.check(wordDTO.getName(), wordDTO.getVersion());
+        Glossary glossary = wordRepository.findGlossaryByWordId(wordId)
+                .orElseThrow(() -> new NotFoundException("Word with id " + wordId + " is not found."));
+
+        Instant now = Instant.now();
+        int updated = Patch.rename(() -> wordRepository.renameIfVersion(wordId, wordDTO.getVersion(), wordDTO.getName(), now),
+                "Word with name " + wordDTO.getName() + " already exists in the glossary.");
+        if (updated == 0) {
+            throw new ConflictException("Word with id " + wordId + " was changed, version " + wordDTO.getVersion() + " is not current.");
+        }
+        counted(glossary, 0, now, List.of(ChangeLogEntry.word(wordId, glossary.getId(), ChangeLogEntry.Op.UPSERT, now)));
+        responseCache.evictWord(wordId);
+        wordSearchIndex.add(glossary.getUser().getId(), new WordHitDTO(wordId, wordDTO.getName(), glossary.getId()));
     }
 
-    public void deleteWord(Long wordId) {
+    public void deleteWord(@ShardKey Long wordId) {
+        // loaded anyway by deleteById, from here on it comes from the persistence context
+        wordRepository.findById(wordId).ifPresent(word -> {
+            Instant now = Instant.now();
+            counted(word.getGlossary(), -1, now,
+                    List.of(ChangeLogEntry.word(wordId, word.getGlossary().getId(), ChangeLogEntry.Op.DELETE, now)));
+            wordSearchIndex.remove(word.getGlossary().getUser().getId(), wordId);
+        });
         wordRepository.deleteById(wordId);
+        responseCache.evictWord(wordId);
+    }
+
+    public DeleteResultDTO deleteAllWordInGlossary(@ShardKey Long glossaryId) {
+        Optional<Glossary> glossary = glossaryRepository.findById(glossaryId);
+        glossary.ifPresent(found -> wordSearchIndex.removeGlossary(found.getUser().getId(), glossaryId));
+        int words = wordRepository.deleteAllByGlossaryId(glossaryId);
+        // the delete cleared the persistence context, the glossary is detached but still has its id and user id.
+        // One tombstone for all its words.
+        Instant now = Instant.now();
+        glossary.ifPresent(found -> counted(found, -words, now,
+                words == 0 ? List.of() : List.of(ChangeLogEntry.glossary(glossaryId, ChangeLogEntry.Op.CLEAR, now))));
+        responseCache.evictWordsOfGlossary(glossaryId);
+        return new DeleteResultDTO(0, 0, words);
+    }
+
+    // Every word change: version and counters of the glossary, the change log of the user (last activity goes
+    // with it), and the cached glossary that shows them. The delta of a bulk delete is what the delete itself
+    // removed, so a word added meanwhile by another transaction still counts.
+    private void counted(Glossary glossary, long words, Instant now, List<ChangeLogEntry> changes) {
+        glossaryRepository.bumpWordsVersion(glossary.getId(), words, now);
+        changeLogService.record(glossary.getUser().getId(), changes);
+        responseCache.evictGlossaryOnly(glossary.getId());
     }
 
-    public void deleteAllWordInGlossary(Long glossaryId) {
-        wordRepository.deleteAllByGlossaryId(glossaryId);
+    private static WordHitDTO hit(Word word) {
+        return new WordHitDTO(word.getId(), word.getName(), word.getGlossary().getId());
     }
 }
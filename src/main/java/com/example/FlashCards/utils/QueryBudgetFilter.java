@@ -0,0 +1,46 @@
+package com.example.FlashCards.utils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-request SQL statement budget, see QueryCounterConfiguration for the properties. Over budget a request is
+ * logged (mode log) or fails with a 500 on the first statement too many (mode fail).
+ * Work handed to other threads, like the streaming export, isn't counted.
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryCounter queryCounter;
+    private final int maxStatements;
+    private final boolean fail;
+
+    public QueryBudgetFilter(QueryCounter queryCounter, int maxStatements, boolean fail) {
+        this.queryCounter = queryCounter;
+        this.maxStatements = maxStatements;
+        this.fail = fail;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        queryCounter.reset();
+        queryCounter.setBudget(maxStatements, fail);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryCounter.setBudget(0, false);
+            QueryCounter.Counts counts = queryCounter.current();
+            if (counts.total() > maxStatements) {
+                log.warn("[Query] {} {} ran {} statements, budget {}: {}",
+                        request.getMethod(), request.getRequestURI(), counts.total(), maxStatements, counts);
+            }
+        }
+    }
+}
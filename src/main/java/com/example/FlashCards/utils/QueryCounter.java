@@ -0,0 +1,110 @@
+package com.example.FlashCards.utils;
+
+import com.example.FlashCards.exceptions.QueryBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, by kind. Registered as Hibernate's
+ * StatementInspector (QueryCounterConfiguration), so it sees every statement of the repositories and
+ * of flushes, but not plain JDBC.
+ * <p>
+ * A JDBC batch is prepared once, so 50 batched inserts count as one. Sequence calls are counted apart and
+ * not in the total: with pooled ids whether a call needs one depends on what ran before.
+ * <p>
+ * Tests use it to pin the number of statements per service method; QueryBudgetFilter uses it for a
+ * per-request budget.
+ */
+@Component
+public class QueryCounter implements StatementInspector {
+
+    public record Counts(int selects, int inserts, int updates, int deletes, int other) {
+
+        public int total() {
+            return selects + inserts + updates + deletes + other;
+        }
+    }
+
+    private static final int SELECT = 0, INSERT = 1, UPDATE = 2, DELETE = 3, OTHER = 4, SEQUENCE = 5;
+    // MySQL has no sequences, Hibernate emulates them with a table per sequence
+    private static final Pattern SEQUENCE_TABLE = Pattern.compile("(?i)(from|update)\\s+\\w+_seq\\b");
+
+    private static final class State {
+        final int[] counts = new int[6];
+        int budget;
+        boolean failOverBudget;
+    }
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String inspect(String sql) {
+        State state = STATE.get();
+        int kind = kind(sql);
+        state.counts[kind]++;
+        if (kind != SEQUENCE && state.failOverBudget && total(state) > state.budget) {
+            throw new QueryBudgetExceededException("More than " + state.budget + " SQL statements in one request.");
+        }
+        return sql;
+    }
+
+    public void reset() {
+        State state = STATE.get();
+        Arrays.fill(state.counts, 0);
+    }
+
+    public Counts current() {
+        int[] counts = STATE.get().counts;
+        return new Counts(counts[SELECT], counts[INSERT], counts[UPDATE], counts[DELETE], counts[OTHER]);
+    }
+
+    public int sequenceCalls() {
+        return STATE.get().counts[SEQUENCE];
+    }
+
+    // budget <= 0: none
+    public void setBudget(int budget, boolean failOverBudget) {
+        State state = STATE.get();
+        state.budget = budget;
+        state.failOverBudget = budget > 0 && failOverBudget;
+    }
+
+    private static int total(State state) {
+        int total = 0;
+        for (int kind = SELECT; kind <= OTHER; kind++) {
+            total += state.counts[kind];
+        }
+        return total;
+    }
+
+    private static int kind(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (sql.contains("next value for") || sql.contains("nextval")
+                || (sql.contains("_seq") && SEQUENCE_TABLE.matcher(sql).find())) {
+            return SEQUENCE;
+        }
+        if (startsWith(sql, start, "select") || startsWith(sql, start, "with")) {
+            return SELECT;
+        }
+        if (startsWith(sql, start, "insert")) {
+            return INSERT;
+        }
+        if (startsWith(sql, start, "update")) {
+            return UPDATE;
+        }
+        if (startsWith(sql, start, "delete")) {
+            return DELETE;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWith(String sql, int start, String keyword) {
+        return sql.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+}
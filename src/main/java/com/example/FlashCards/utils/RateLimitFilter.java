@@ -0,0 +1,118 @@
+package com.example.FlashCards.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the controllers, see RateLimitConfiguration for the properties. Every request takes
+ * a token from the bucket of its client address and, when the request names a user (/users/{id}/..., /glossaries/user/{id},
+ * the username of login and register), from the bucket of that user. Buckets are per endpoint class: login, writes, reads.
+ * An empty bucket answers 429 with Retry-After before anything touches the database.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {LOGIN, WRITES, READS}
+
+    record Key(EndpointClass endpointClass, boolean user, String subject) {
+    }
+
+    private final RateLimiter rateLimiter;
+    private final Map<EndpointClass, RateLimiter.Limit> userLimits;
+    private final Map<EndpointClass, RateLimiter.Limit> ipLimits;
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           Map<EndpointClass, RateLimiter.Limit> userLimits,
+                           Map<EndpointClass, RateLimiter.Limit> ipLimits,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.userLimits = new EnumMap<>(userLimits);
+        this.ipLimits = new EnumMap<>(ipLimits);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rejected.put(endpointClass, Counter.builder("flashcards.rate-limit.rejected")
+                    .description("Requests turned away with 429")
+                    .tag("class", endpointClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        long waitNanos = rateLimiter.acquire(new Key(endpointClass, false, request.getRemoteAddr()), ipLimits.get(endpointClass));
+        if (waitNanos == 0) {
+            String user = user(request, endpointClass);
+            if (user != null) {
+                waitNanos = rateLimiter.acquire(new Key(endpointClass, true, user), userLimits.get(endpointClass));
+            }
+        }
+        if (waitNanos > 0) {
+            rejected.get(endpointClass).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, divideUp(waitNanos, TimeUnit.SECONDS.toNanos(1)))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS")) {
+            return EndpointClass.READS;
+        }
+        String path = path(request);
+        if (method.equals("POST") && (path.equals("/users/login") || path.equals("/users/register"))) {
+            return EndpointClass.LOGIN;
+        }
+        return EndpointClass.WRITES;
+    }
+
+    // user id from the path, or the name login and register are called with; null when the request names no user
+    static String user(HttpServletRequest request, EndpointClass endpointClass) {
+        if (endpointClass == EndpointClass.LOGIN) {
+            String name = request.getParameter("username");
+            return name == null ? null : "name:" + name;
+        }
+        String path = path(request);
+        String id = null;
+        if (path.startsWith("/users/")) {
+            id = segment(path, "/users/".length());
+        } else if (path.startsWith("/glossaries/user/")) {
+            id = segment(path, "/glossaries/user/".length());
+        }
+        return id == null ? null : "id:" + id;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // the digits from start up to the next slash, null when it isn't a number
+    private static String segment(String path, int start) {
+        int end = start;
+        while (end < path.length() && Character.isDigit(path.charAt(end))) {
+            end++;
+        }
+        if (end == start || (end < path.length() && path.charAt(end) != '/')) {
+            return null;
+        }
+        return path.substring(start, end);
+    }
+
+    private static long divideUp(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
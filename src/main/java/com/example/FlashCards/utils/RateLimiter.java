@@ -0,0 +1,68 @@
+package com.example.FlashCards.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token buckets by key, without locks: a bucket is one AtomicLong with the time its tokens are all back
+ * ("theoretical arrival time", GCRA), a request moves it on by one interval with a CAS. Same behavior as a
+ * token bucket of burst tokens refilled at perSecond, but nothing to refill.
+ * <p>
+ * The buckets live in a Caffeine cache (concurrent hash table, reads don't lock). A bucket unused for longer than
+ * it takes to fill up is full anyway and is dropped after idle; beyond maxKeys the least used go first.
+ */
+public class RateLimiter {
+
+    public record Limit(double perSecond, int burst) {
+
+        public long intervalNanos() {
+            return (long) (1_000_000_000L / perSecond);
+        }
+
+        public Duration fillTime() {
+            return Duration.ofNanos(intervalNanos() * burst);
+        }
+    }
+
+    private static final Function<Object, AtomicLong> NEW_BUCKET = key -> new AtomicLong(Long.MIN_VALUE);
+
+    private final Cache<Object, AtomicLong> buckets;
+    private final Ticker ticker;
+
+    public RateLimiter(long maxKeys, Duration idle, Ticker ticker) {
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idle)
+                .ticker(ticker)
+                .build();
+    }
+
+    // 0 when the request may go ahead (its token is taken), otherwise the nanos until it would
+    public long acquire(Object key, Limit limit) {
+        AtomicLong bucket = buckets.get(key, NEW_BUCKET);
+        long now = ticker.read();
+        long interval = limit.intervalNanos();
+        long tolerance = interval * limit.burst();
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + interval;
+            if (next - now > tolerance) {
+                return next - now - tolerance;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
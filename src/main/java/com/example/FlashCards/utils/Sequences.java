@@ -0,0 +1,48 @@
+package com.example.FlashCards.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The id sequences of the entities, for code that writes ids itself (shard id ranges, DatasetGenerator).
+ * H2 has real sequences, on MySQL Hibernate keeps the next value in a table of the same name.
+ */
+public final class Sequences {
+
+    // allocationSize of the entities, pooled ids are handed out below the sequence value
+    public static final int ALLOCATION_SIZE = 50;
+
+    private Sequences() {
+    }
+
+    // the value the sequence returns next
+    public static long next(Connection connection, String sequence) throws SQLException {
+        String query = mysql(connection)
+                ? "select next_val from " + sequence
+                : "select base_value from information_schema.sequences where sequence_name = '" + sequence.toUpperCase() + "'";
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            return resultSet.next() ? resultSet.getLong(1) : 1;
+        }
+    }
+
+    // moves the sequence up to start, never down. Returns false when it was there already.
+    public static boolean moveTo(Connection connection, String sequence, long start) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (mysql(connection)) {
+                return statement.executeUpdate("update " + sequence + " set next_val = " + start + " where next_val < " + start) > 0;
+            }
+            if (next(connection, sequence) >= start) {
+                return false;
+            }
+            statement.execute("alter sequence " + sequence + " restart with " + start);
+            return true;
+        }
+    }
+
+    private static boolean mysql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("MySQL");
+    }
+}
@@ -0,0 +1,6 @@
+-- Keyset pagination of the lists of users, of a user's glossaries and of a glossary's words, by id and by updatedAt
+create index idx_users_updated on users (updated_at, user_id);
+create index idx_glossaries_user_id on glossaries (user_id, glossary_id);
+create index idx_glossaries_user_updated on glossaries (user_id, updated_at, glossary_id);
+create index idx_words_glossary_id on words (glossary_id, word_id);
+create index idx_words_glossary_updated on words (glossary_id, updated_at, word_id);
@@ -0,0 +1,9 @@
+-- Pooled sequence ids (allocationSize 50) instead of IDENTITY, so that inserts can be batched.
+-- A fetched value n hands out the ids n - 49 to n, so a baselined database starts a block of 50 past the highest id
+-- (a multiple of 50), an empty one at 1.
+create sequence users_seq start with 1 increment by 50;
+alter sequence users_seq restart with (select coalesce((max(user_id) / 50 + 2) * 50, 1) from users);
+create sequence glossaries_seq start with 1 increment by 50;
+alter sequence glossaries_seq restart with (select coalesce((max(glossary_id) / 50 + 2) * 50, 1) from glossaries);
+create sequence words_seq start with 1 increment by 50;
+alter sequence words_seq restart with (select coalesce((max(word_id) / 50 + 2) * 50, 1) from words);
@@ -0,0 +1,15 @@
+-- Spaced-repetition state of every word, see ReviewService
+create table review_cards (
+    word_id bigint not null,
+    user_id bigint not null,
+    due_at timestamp(6) with time zone not null,
+    interval_days integer not null,
+    ease double precision not null,
+    repetitions integer not null,
+    lapses integer not null,
+    last_reviewed_at timestamp(6) with time zone,
+    primary key (word_id),
+    constraint fk_review_cards_word foreign key (word_id) references words (word_id) on delete cascade,
+    constraint fk_review_cards_user foreign key (user_id) references users (user_id) on delete cascade
+);
+create index idx_review_cards_user_due on review_cards (user_id, due_at);
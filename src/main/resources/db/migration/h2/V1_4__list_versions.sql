@@ -0,0 +1,5 @@
+-- Versions of the glossary list of a user and the word list of a glossary, for the ETag/Last-Modified of the lists
+alter table users add column glossaries_version bigint default 0 not null;
+alter table users add column glossaries_modified_at timestamp(6) with time zone;
+alter table glossaries add column words_version bigint default 0 not null;
+alter table glossaries add column words_modified_at timestamp(6) with time zone;
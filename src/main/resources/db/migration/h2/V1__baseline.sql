@@ -0,0 +1,35 @@
+-- Schema as ddl-auto built it before migrations: IDENTITY ids, names global unique on all three tables.
+-- The dev database was create-drop then, so no H2 database is baselined, the unique keys are named
+-- like Hibernate named them on MySQL.
+create table users (
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    user_id bigint generated by default as identity,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (user_id)
+);
+
+create table glossaries (
+    created_at timestamp(6) with time zone not null,
+    glossary_id bigint generated by default as identity,
+    updated_at timestamp(6) with time zone not null,
+    user_id bigint not null,
+    name varchar(255) not null,
+    primary key (glossary_id)
+);
+
+create table words (
+    created_at timestamp(6) with time zone not null,
+    glossary_id bigint not null,
+    updated_at timestamp(6) with time zone not null,
+    word_id bigint generated by default as identity,
+    name varchar(255) not null,
+    primary key (word_id)
+);
+
+alter table glossaries add constraint UK_i05sh3pii9a0gkilkbdh9xqey unique (name);
+alter table users add constraint UK_3g1j96g94xpk3lpxl2qbl985x unique (name);
+alter table words add constraint UK_klst28o1053qakfixvpay80bn unique (name);
+alter table glossaries add constraint FKd2222kj85n3w4ugy3widab943 foreign key (user_id) references users (user_id);
+alter table words add constraint FKnmgdt89tvf9cowoxxwpm7ok6o foreign key (glossary_id) references glossaries (glossary_id);
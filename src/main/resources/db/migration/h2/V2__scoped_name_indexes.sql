@@ -0,0 +1,7 @@
+-- Names are unique per parent: a word per glossary, a glossary per user. Only user names stay global.
+alter table words drop constraint UK_klst28o1053qakfixvpay80bn;
+alter table glossaries drop constraint UK_i05sh3pii9a0gkilkbdh9xqey;
+alter table users rename constraint UK_3g1j96g94xpk3lpxl2qbl985x to uk_users_name;
+
+alter table words add constraint uk_words_glossary_name unique (glossary_id, name);
+alter table glossaries add constraint uk_glossaries_user_name unique (user_id, name);
@@ -0,0 +1,16 @@
+-- Answers written by AnswerWriter. event_id makes a replay of the journal idempotent.
+create sequence answer_events_seq start with 1 increment by 50;
+
+create table answer_events (
+    answer_id bigint not null,
+    event_id varchar(36) not null,
+    word_id bigint not null,
+    user_id bigint not null,
+    grade integer not null,
+    answered_at timestamp(6) with time zone not null,
+    primary key (answer_id),
+    constraint uk_answer_events_event_id unique (event_id),
+    constraint fk_answer_events_word foreign key (word_id) references words (word_id) on delete cascade,
+    constraint fk_answer_events_user foreign key (user_id) references users (user_id) on delete cascade
+);
+create index idx_answer_events_user_answered on answer_events (user_id, answered_at);
@@ -0,0 +1,4 @@
+-- @Version of users, glossaries and words, compared by the conditional updates of PATCH
+alter table users add column version bigint default 0 not null;
+alter table glossaries add column version bigint default 0 not null;
+alter table words add column version bigint default 0 not null;
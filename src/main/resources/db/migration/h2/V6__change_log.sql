@@ -0,0 +1,18 @@
+-- Per-user change log of glossaries and words for GET /users/{userId}/changes, see ChangeLogService.
+-- change_seq is the last sequence number handed out to the user, compacted_seq the last one whose tombstone
+-- ChangeLogCompactor dropped: a client behind it has to start over.
+alter table users add column change_seq bigint default 0 not null;
+alter table users add column compacted_seq bigint default 0 not null;
+
+create table change_log (
+    user_id bigint not null,
+    seq bigint not null,
+    entity varchar(16) not null,
+    entity_id bigint not null,
+    glossary_id bigint,
+    op varchar(16) not null,
+    changed_at timestamp(6) with time zone not null,
+    primary key (user_id, seq),
+    constraint fk_change_log_user foreign key (user_id) references users (user_id) on delete cascade
+);
+create index idx_change_log_changed on change_log (changed_at, user_id);
@@ -0,0 +1,10 @@
+-- Pooled sequence ids (allocationSize 50) instead of IDENTITY, so that inserts can be batched.
+-- MySQL has no sequences, Hibernate keeps the next value of each in a table.
+-- A fetched value n hands out the ids n - 49 to n, so a baselined database starts a block of 50 past the highest id
+-- (a multiple of 50), an empty one at 1.
+create table users_seq (next_val bigint) engine=InnoDB;
+insert into users_seq select coalesce((max(user_id) div 50 + 2) * 50, 1) from users;
+create table glossaries_seq (next_val bigint) engine=InnoDB;
+insert into glossaries_seq select coalesce((max(glossary_id) div 50 + 2) * 50, 1) from glossaries;
+create table words_seq (next_val bigint) engine=InnoDB;
+insert into words_seq select coalesce((max(word_id) div 50 + 2) * 50, 1) from words;
@@ -0,0 +1,35 @@
+-- Schema as ddl-auto=update built it before migrations: IDENTITY ids, names global unique on all three tables,
+-- constraint names generated by Hibernate. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and only get the migrations after it.
+create table users (
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    user_id bigint not null auto_increment,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+create table glossaries (
+    created_at datetime(6) not null,
+    glossary_id bigint not null auto_increment,
+    updated_at datetime(6) not null,
+    user_id bigint not null,
+    name varchar(255) not null,
+    primary key (glossary_id)
+) engine=InnoDB;
+
+create table words (
+    created_at datetime(6) not null,
+    glossary_id bigint not null,
+    updated_at datetime(6) not null,
+    word_id bigint not null auto_increment,
+    name varchar(255) not null,
+    primary key (word_id)
+) engine=InnoDB;
+
+alter table glossaries add constraint UK_i05sh3pii9a0gkilkbdh9xqey unique (name);
+alter table users add constraint UK_3g1j96g94xpk3lpxl2qbl985x unique (name);
+alter table words add constraint UK_klst28o1053qakfixvpay80bn unique (name);
+alter table glossaries add constraint FKd2222kj85n3w4ugy3widab943 foreign key (user_id) references users (user_id);
+alter table words add constraint FKnmgdt89tvf9cowoxxwpm7ok6o foreign key (glossary_id) references glossaries (glossary_id);
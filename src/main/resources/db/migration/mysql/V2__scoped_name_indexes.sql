@@ -0,0 +1,30 @@
+-- Names are unique per parent: a word per glossary, a glossary per user. Only user names stay global.
+-- The old unique keys have the names Hibernate generated for them (V1), and a database baselined from
+-- ddl-auto=update may have been built by another Hibernate version, so they are looked up instead of dropped by name.
+set @drop_uk = (select coalesce(concat('alter table words ', group_concat(distinct concat('drop index ', index_name))), 'do 0')
+                from information_schema.statistics
+                where table_schema = database() and table_name = 'words' and non_unique = 0
+                  and index_name <> 'PRIMARY' and column_name = 'name' and seq_in_index = 1);
+prepare stmt from @drop_uk;
+execute stmt;
+deallocate prepare stmt;
+
+set @drop_uk = (select coalesce(concat('alter table glossaries ', group_concat(distinct concat('drop index ', index_name))), 'do 0')
+                from information_schema.statistics
+                where table_schema = database() and table_name = 'glossaries' and non_unique = 0
+                  and index_name <> 'PRIMARY' and column_name = 'name' and seq_in_index = 1);
+prepare stmt from @drop_uk;
+execute stmt;
+deallocate prepare stmt;
+
+-- the user name key under the name User declares
+set @rename_uk = (select coalesce(concat('alter table users rename index ', min(index_name), ' to uk_users_name'), 'do 0')
+                  from information_schema.statistics
+                  where table_schema = database() and table_name = 'users' and non_unique = 0
+                    and index_name <> 'PRIMARY' and column_name = 'name' and seq_in_index = 1);
+prepare stmt from @rename_uk;
+execute stmt;
+deallocate prepare stmt;
+
+alter table words add constraint uk_words_glossary_name unique (glossary_id, name);
+alter table glossaries add constraint uk_glossaries_user_name unique (user_id, name);
@@ -0,0 +1,17 @@
+-- Answers written by AnswerWriter. event_id makes a replay of the journal idempotent.
+create table answer_events_seq (next_val bigint) engine=InnoDB;
+insert into answer_events_seq values (1);
+
+create table answer_events (
+    answer_id bigint not null,
+    event_id varchar(36) not null,
+    word_id bigint not null,
+    user_id bigint not null,
+    grade integer not null,
+    answered_at timestamp(6) not null,
+    primary key (answer_id),
+    constraint uk_answer_events_event_id unique (event_id),
+    index idx_answer_events_user_answered (user_id, answered_at),
+    constraint fk_answer_events_word foreign key (word_id) references words (word_id) on delete cascade,
+    constraint fk_answer_events_user foreign key (user_id) references users (user_id) on delete cascade
+) engine=InnoDB;
@@ -0,0 +1,16 @@
+-- Denormalized counters for the dashboards, kept by the services in the transaction of every change and
+-- repaired by CounterReconciler. Filled from the current rows here.
+alter table glossaries
+    add column word_count bigint default 0 not null,
+    add column last_activity_at timestamp(6) null;
+alter table users
+    add column glossary_count bigint default 0 not null,
+    add column last_activity_at timestamp(6) null;
+
+update glossaries g
+set g.word_count       = (select count(*) from words w where w.glossary_id = g.glossary_id),
+    g.last_activity_at = coalesce(g.words_modified_at, g.updated_at);
+
+update users u
+set u.glossary_count   = (select count(*) from glossaries g where g.user_id = u.user_id),
+    u.last_activity_at = coalesce((select max(g.last_activity_at) from glossaries g where g.user_id = u.user_id), u.updated_at);
@@ -0,0 +1,19 @@
+-- Per-user change log of glossaries and words for GET /users/{userId}/changes, see ChangeLogService.
+-- change_seq is the last sequence number handed out to the user, compacted_seq the last one whose tombstone
+-- ChangeLogCompactor dropped: a client behind it has to start over.
+alter table users
+    add column change_seq bigint default 0 not null,
+    add column compacted_seq bigint default 0 not null;
+
+create table change_log (
+    user_id bigint not null,
+    seq bigint not null,
+    entity varchar(16) not null,
+    entity_id bigint not null,
+    glossary_id bigint null,
+    op varchar(16) not null,
+    changed_at timestamp(6) not null,
+    primary key (user_id, seq),
+    index idx_change_log_changed (changed_at, user_id),
+    constraint fk_change_log_user foreign key (user_id) references users (user_id) on delete cascade
+) engine=InnoDB;
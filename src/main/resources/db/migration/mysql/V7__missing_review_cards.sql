@@ -0,0 +1,7 @@
+-- Cards for words stored before there were cards, due right away (2.5 is ReviewCard.INITIAL_EASE).
+-- New cards are created along with the word.
+insert into review_cards (word_id, user_id, due_at, interval_days, ease, repetitions, lapses)
+select w.word_id, g.user_id, w.created_at, 0, 2.5, 0, 0
+from words w
+         join glossaries g on g.glossary_id = w.glossary_id
+where not exists (select 1 from review_cards c where c.word_id = w.word_id);
@@ -0,0 +1,109 @@
+package com.example.FlashCards;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.services.GlossaryService;
+import com.example.FlashCards.services.ReviewService;
+import com.example.FlashCards.services.UserService;
+import com.example.FlashCards.services.WordService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A database as ddl-auto built it before there were migrations, with data in it, baselined at V1 and migrated the
+// way the prod profile does. The context only starts if Hibernate validates the migrated schema.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + BaselineMigrationTest.URL,
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "flashcards.answers.journal-dir=${java.io.tmpdir}/flashcards-test/answers-${random.uuid}"})
+class BaselineMigrationTest {
+
+    static final String URL = "jdbc:h2:mem:baselined;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    Flyway flyway;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ReviewService reviewService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    GlossaryService glossaryService;
+
+    @Autowired
+    WordService wordService;
+
+    // runs before the context is loaded, with the credentials of the dev profile
+    @BeforeAll
+    static void createOriginalSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "admin", "password");
+             Statement statement = connection.createStatement()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__baseline.sql"));
+            statement.execute("insert into users (user_id, name, password, created_at, updated_at)"
+                    + " values (7, 'alice', 'secret', timestamp '2023-01-01 10:00:00', timestamp '2023-01-01 10:00:00')");
+            statement.execute("insert into glossaries (glossary_id, user_id, name, created_at, updated_at)"
+                    + " values (120, 7, 'fruits', timestamp '2023-01-02 10:00:00', timestamp '2023-01-02 10:00:00'),"
+                    + " (121, 7, 'colors', timestamp '2023-01-02 11:00:00', timestamp '2023-01-03 10:00:00')");
+            statement.execute("insert into words (word_id, glossary_id, name, created_at, updated_at)"
+                    + " values (300, 120, 'apple', timestamp '2023-01-04 10:00:00', timestamp '2023-01-04 10:00:00'),"
+                    + " (301, 120, 'banana', timestamp '2023-01-04 11:00:00', timestamp '2023-01-04 11:00:00'),"
+                    + " (302, 121, 'red', timestamp '2023-01-05 10:00:00', timestamp '2023-01-05 10:00:00')");
+        }
+    }
+
+    @Test
+    void migrate_fromBaseline() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+
+        // every word got its card, the counters were filled
+        assertEquals(3, reviewService.getDueCards(7L, 10).size());
+        assertEquals(2L, jdbcTemplate.queryForObject("select word_count from glossaries where glossary_id = 120", Long.class));
+        assertEquals(2L, jdbcTemplate.queryForObject("select glossary_count from users where user_id = 7", Long.class));
+    }
+
+    @Test
+    void migrate_sequencesPastExistingIds() {
+        // a user of its own, the rows of alice stay as they were baselined
+        UserDTO userDTO = new UserDTO();
+        userDTO.setName("bob");
+        userDTO.setPassword("secret");
+        UserDTO user = userService.add(userDTO);
+
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setName("animals");
+        GlossaryDTO glossary = glossaryService.addGlossary(user.getId(), glossaryDTO);
+
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName("cat");
+        WordDTO word = wordService.addWord(glossary.getId(), wordDTO);
+
+        // the first block of 50 starts past the highest id of the baselined rows
+        assertEquals(51L, user.getId());
+        assertEquals(151L, glossary.getId());
+        assertEquals(351L, word.getId());
+    }
+}
@@ -3,7 +3,10 @@ package com.example.FlashCards;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// the dev profile, but neither its database file nor its journal in ./data
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:app-${random.uuid}",
+		"flashcards.answers.journal-dir=${java.io.tmpdir}/flashcards-test/answers-${random.uuid}"})
 class FlashCardsApplicationTests {
 
 	@Test
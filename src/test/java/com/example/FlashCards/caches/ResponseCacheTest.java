@@ -0,0 +1,137 @@
+package com.example.FlashCards.caches;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    ResponseCache responseCache;
+    AtomicInteger loads;
+
+    UserDTO userDTO;
+    GlossaryDTO glossaryDTO;
+    WordDTO wordDTO;
+
+    @BeforeEach
+    public void setUp() {
+        responseCache = new ResponseCache(JsonMapper.builder().findAndAddModules().build(), true, 1024 * 1024, 0);
+        loads = new AtomicInteger();
+
+        userDTO = new UserDTO();
+        userDTO.setId(1L);
+        userDTO.setName("u1");
+        glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setId(2L);
+        glossaryDTO.setName("g1");
+        glossaryDTO.setUserDTO(userDTO);
+        wordDTO = new WordDTO();
+        wordDTO.setId(3L);
+        wordDTO.setName("w1");
+        wordDTO.setGlossaryDTO(glossaryDTO);
+    }
+
+    private ResponseCache.Response getWord() {
+        return responseCache.word(wordDTO.getId(), () -> {
+            loads.incrementAndGet();
+            return wordDTO;
+        });
+    }
+
+    @Test
+    public void word_loadedOnce() {
+        byte[] first = getWord().json();
+        byte[] second = getWord().json();
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertTrue(new String(first).contains("\"name\":\"w1\""));
+        assertEquals(1, responseCache.entries());
+        assertTrue(responseCache.bytes() > first.length);
+    }
+
+    @Test
+    public void word_validators() {
+        Instant updatedAt = Instant.parse("2024-01-02T03:04:05Z");
+        wordDTO.setUpdatedAt(updatedAt.minusSeconds(60));
+        userDTO.setUpdatedAt(updatedAt);
+
+        ResponseCache.Response response = getWord();
+        responseCache.evictUser(userDTO.getId());
+        userDTO.setName("u2");
+        ResponseCache.Response renamed = getWord();
+
+        assertEquals(updatedAt.toEpochMilli(), response.lastModified());
+        assertTrue(response.etag().startsWith("W/\""));
+        assertNotEquals(response.etag(), renamed.etag());
+    }
+
+    @Test
+    public void evictGlossary_evictsEmbeddingWords() {
+        getWord();
+        responseCache.evictGlossary(glossaryDTO.getId());
+        getWord();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void evictUser_evictsEmbeddingWords() {
+        getWord();
+        responseCache.evictUser(userDTO.getId());
+        getWord();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void evictOtherGlossary_keepsWord() {
+        getWord();
+        responseCache.evictWordsOfGlossary(glossaryDTO.getId() + 1);
+        getWord();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void evictDuringLoad_discardsOnlyAffectedEntry() {
+        responseCache.word(wordDTO.getId(), () -> {
+            loads.incrementAndGet();
+            responseCache.evictWord(wordDTO.getId() + 1);
+            return wordDTO;
+        });
+        getWord();
+        assertEquals(1, loads.get());
+
+        responseCache.evictWord(wordDTO.getId());
+        responseCache.word(wordDTO.getId(), () -> {
+            loads.incrementAndGet();
+            responseCache.evictGlossaryOnly(glossaryDTO.getId());
+            return wordDTO;
+        });
+        getWord();
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Right after an eviction of its user a word is served but not cached, a replica may not have the change yet.")
+    public void evictUser_settling() {
+        responseCache = new ResponseCache(JsonMapper.builder().findAndAddModules().build(), true, 1024 * 1024, 60_000);
+        responseCache.evictUser(userDTO.getId());
+
+        getWord();
+        getWord();
+
+        assertEquals(2, loads.get());
+        assertEquals(0, responseCache.entries());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Entity2DTOMapperTest {
+
+    // the reflective setup Entity2DTOMapper used before the hand-written mappings
+    ModelMapper reflective = new ModelMapper();
+    Entity2DTOMapper mapper = new Entity2DTOMapper();
+
+    User user;
+    Glossary glossary;
+    Word word;
+
+    @BeforeEach
+    public void setUp() {
+        // the counters aren't mapped, only the reads of users and glossaries themselves fill them
+        reflective.typeMap(User.class, UserDTO.class).addMappings(m -> {
+            m.skip(UserDTO::setGlossaryCount);
+            m.skip(UserDTO::setLastActivityAt);
+        });
+        reflective.typeMap(Glossary.class, GlossaryDTO.class).addMappings(m -> {
+            m.map(Glossary::getUser, GlossaryDTO::setUserDTO);
+            m.skip(GlossaryDTO::setWordCount);
+            m.skip(GlossaryDTO::setLastActivityAt);
+        });
+        reflective.typeMap(Word.class, WordDTO.class).addMappings(m -> {
+            m.map(Word::getGlossary, WordDTO::setGlossaryDTO);
+        });
+
+        Instant created = Instant.parse("2023-01-01T10:00:00Z");
+        Instant updated = Instant.parse("2023-01-02T10:00:00Z");
+        user = User.builder()
+                .id(1L)
+                .name("u1")
+                .password("p1")
+                .createdAt(created)
+                .updatedAt(updated)
+                .build();
+        glossary = Glossary.builder()
+                .id(2L)
+                .name("g1")
+                .user(user)
+                .createdAt(created)
+                .updatedAt(updated)
+                .build();
+        word = Word.builder()
+                .id(3L)
+                .name("w1")
+                .glossary(glossary)
+                .createdAt(created)
+                .updatedAt(updated)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Hand-written entity to DTO mappings produce the same DTOs as the ModelMapper type maps")
+    public void toDTO_sameAsModelMapper() {
+        assertEquals(reflective.map(user, UserDTO.class), mapper.toDTO(user));
+        assertEquals(reflective.map(glossary, GlossaryDTO.class), mapper.toDTO(glossary));
+        assertEquals(reflective.map(word, WordDTO.class), mapper.toDTO(word));
+        assertEquals(mapper.toDTO(word), mapper.map(word, WordDTO.class));
+    }
+
+    @Test
+    @DisplayName("Missing parents map to null nested DTOs")
+    public void toDTO_withoutParent() {
+        glossary.setUser(null);
+        word.setGlossary(null);
+
+        assertNull(mapper.toDTO(glossary).getUserDTO());
+        assertNull(mapper.toDTO(word).getGlossaryDTO());
+    }
+
+    @Test
+    @DisplayName("DTO to entity keeps the fields of the DTO")
+    public void toEntity_success() {
+        User mappedUser = mapper.toEntity(mapper.toDTO(user));
+        Word mappedWord = mapper.toEntity(mapper.toDTO(word));
+
+        assertEquals(user.getName(), mappedUser.getName());
+        assertEquals(user.getPassword(), mappedUser.getPassword());
+        assertEquals(word.getId(), mappedWord.getId());
+        assertEquals(word.getName(), mappedWord.getName());
+        assertEquals(glossary.getId(), mappedWord.getGlossary().getId());
+        assertEquals(user.getId(), mappedWord.getGlossary().getUser().getId());
+    }
+}
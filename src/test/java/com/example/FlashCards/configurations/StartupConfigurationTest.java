@@ -0,0 +1,24 @@
+package com.example.FlashCards.configurations;
+
+import com.example.FlashCards.datasources.ReplicaLagMonitor;
+import com.example.FlashCards.services.CounterReconciler;
+import com.example.FlashCards.services.WordService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupConfigurationTest {
+
+    LazyInitializationExcludeFilter filter = StartupConfiguration.scheduledBeansExcludeFilter();
+
+    @Test
+    @DisplayName("With lazy initialization, beans with @Scheduled methods are still created on start")
+    public void scheduledBeans_notLazy() {
+        assertTrue(filter.isExcluded("counterReconciler", null, CounterReconciler.class));
+        assertTrue(filter.isExcluded("replicaLagMonitor", null, ReplicaLagMonitor.class));
+        assertFalse(filter.isExcluded("wordService", null, WordService.class));
+        assertFalse(filter.isExcluded("unknown", null, null));
+    }
+}
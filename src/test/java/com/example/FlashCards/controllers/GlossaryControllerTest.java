@@ -1,32 +1,46 @@
 package com.example.FlashCards.controllers;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
 import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
+import com.example.FlashCards.caches.ResponseCache;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
 import com.example.FlashCards.entities.Glossary;
 import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.ConflictException;
 import com.example.FlashCards.exceptions.NotFoundException;
 import com.example.FlashCards.services.GlossaryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = GlossaryController.class)
+// the services are mocks, so nothing would evict the response cache between the requests of a test
+@WebMvcTest(controllers = GlossaryController.class, properties = "flashcards.response-cache.enabled=false")
+@Import(ResponseCache.class)
 public class GlossaryControllerTest {
     @MockBean
     GlossaryService glossaryService;
@@ -94,28 +108,68 @@ public class GlossaryControllerTest {
     }
 
     @Test
-    @DisplayName("GET /glossaries/user/{userId} calls GlossaryService.getAllGlossaries(userId) and returns all GlossaryDTOs of UserDTO with userid")
+    @DisplayName("GET /glossaries/{glossaryId} with Accept: application/cbor returns the same GlossaryDTO as CBOR")
+    public void getGlossaryById_cbor() throws Exception {
+        GlossaryDTO g1DTO = modelMapper.map(g1, GlossaryDTO.class);
+        g1DTO.getUserDTO().setPassword(null);
+        when(glossaryService.getGlossaryById(g1.getId()))
+                .thenReturn(g1DTO);
+
+        byte[] cbor = mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseURL + "/" + g1.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(g1DTO, CBORMapper.builder().findAndAddModules().build().readValue(cbor, GlossaryDTO.class));
+    }
+
+    @Test
+    @DisplayName("GET /glossaries/user/{userId} calls GlossaryService.getGlossaries(userId, cursor, limit, sort) and returns the first page of GlossaryDTOs of UserDTO with userid")
     public void getAllGlossariesOfUser_success() throws Exception {
         List<GlossaryDTO> glossaryDTOList =
                 Stream.of(g1, g2)
                         .map(glossary -> modelMapper.map(glossary, GlossaryDTO.class))
                         .collect(Collectors.toList());
-        when(glossaryService.getAllGlossaries(user.getId()))
-                .thenReturn(glossaryDTOList);
+        when(glossaryService.getGlossariesVersion(user.getId()))
+                .thenReturn(new ListVersionDTO(3, Instant.parse("2024-01-02T03:04:05Z")));
+        when(glossaryService.getGlossaries(user.getId(), null, 50, "id"))
+                .thenReturn(new SliceDTO<>(glossaryDTOList, null));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL + "/user" + "/" + user.getId())
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(glossaryDTOList.size())))
-                .andExpect(jsonPath("$[0].id", is(g1.getId()), Long.class))
-                .andExpect(jsonPath("$[1].id", is(g2.getId()), Long.class))
-                .andExpect(jsonPath("$[*].name", containsInAnyOrder(g1.getName(), g2.getName())))
-                .andExpect(jsonPath("$[0].userDTO.id", is(g1.getUser().getId()), Long.class))
-                .andExpect(jsonPath("$[1].userDTO.id", is(g2.getUser().getId()), Long.class))
-                .andExpect(jsonPath("$[*].userDTO.name", equalTo(List.of(g1.getUser().getName(), g2.getUser().getName()))));
-        verify(glossaryService).getAllGlossaries(user.getId());
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Tue, 02 Jan 2024 03:04:05 GMT"))
+                .andExpect(jsonPath("$.content", hasSize(glossaryDTOList.size())))
+                .andExpect(jsonPath("$.content[0].id", is(g1.getId()), Long.class))
+                .andExpect(jsonPath("$.content[1].id", is(g2.getId()), Long.class))
+                .andExpect(jsonPath("$.content[*].name", containsInAnyOrder(g1.getName(), g2.getName())))
+                .andExpect(jsonPath("$.content[0].userDTO.id", is(g1.getUser().getId()), Long.class))
+                .andExpect(jsonPath("$.content[1].userDTO.id", is(g2.getUser().getId()), Long.class))
+                .andExpect(jsonPath("$.content[*].userDTO.name", equalTo(List.of(g1.getUser().getName(), g2.getUser().getName()))))
+                .andExpect(jsonPath("$.next", nullValue()));
+        verify(glossaryService).getGlossaries(user.getId(), null, 50, "id");
+    }
+
+    @Test
+    @DisplayName("GET /glossaries/user/{userId} with the current ETag returns 304 without reading the glossaries")
+    public void getAllGlossariesOfUser_notModified() throws Exception {
+        when(glossaryService.getGlossariesVersion(user.getId()))
+                .thenReturn(new ListVersionDTO(3, Instant.parse("2024-01-02T03:04:05Z")));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseURL + "/user" + "/" + user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isNotModified());
+        verify(glossaryService, never()).getGlossaries(any(), any(), anyInt(), any());
     }
 
     @Test
@@ -169,6 +223,30 @@ public class GlossaryControllerTest {
         verify(glossaryService).updateGlossary(g2DTO, g1DTO.getId());
     }
 
+    @Test
+    @DisplayName("PATCH /glossaries/{glossaryId} with name and version returns 204, 409 when the version is not current")
+    public void patchGlossary() throws Exception {
+        GlossaryDTO patch = new GlossaryDTO();
+        patch.setName("g1b");
+        patch.setVersion(3L);
+        doNothing().doThrow(new ConflictException("Glossary with id 1 was changed, version 3 is not current."))
+                .when(glossaryService).patchGlossary(patch, 1L);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch(baseURL + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch))
+                )
+                .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch(baseURL + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch))
+                )
+                .andExpect(status().isConflict());
+        verify(glossaryService, times(2)).patchGlossary(patch, 1L);
+    }
+
     @Test
     @DisplayName("DELETE /glossaries/{glossaryId} with GlossaryDTO calls GlossaryService.deleteGlossaryById(glossaryId)")
     public void deleteGlossaryById_success() throws Exception {
@@ -178,6 +256,8 @@ public class GlossaryControllerTest {
         when(glossaryService.getGlossaryById(g1DTO.getId()))
                 .thenReturn(g1DTO)
                 .thenThrow(new NotFoundException("Glossary with id " + g1DTO.getId() + " is not found."));
+        when(glossaryService.deleteGlossary(g1DTO.getId()))
+                .thenReturn(new DeleteResultDTO(0, 1, 3));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL + "/" + g1DTO.getId())
@@ -194,7 +274,7 @@ public class GlossaryControllerTest {
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", is("Deleted glossary with id " + g1DTO.getId())));
+                .andExpect(jsonPath("$", is("Deleted glossary with id " + g1DTO.getId() + " (3 words)")));
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL + "/" + g1DTO.getId())
                         .accept(MediaType.APPLICATION_JSON)
@@ -213,30 +293,35 @@ public class GlossaryControllerTest {
         List<GlossaryDTO> glossaryDTOList = List.of(g1DTO, g2DTO);
 
         //the GlossaryDTO passed in as parameter and as return value shouldn't have UserDTO.password
-        when(glossaryService.getAllGlossaries(g1DTO.getId()))
-                .thenReturn(glossaryDTOList)
-                .thenReturn(List.of());
+        when(glossaryService.getGlossariesVersion(user.getId()))
+                .thenReturn(new ListVersionDTO(3, Instant.parse("2024-01-02T03:04:05Z")))
+                .thenReturn(new ListVersionDTO(4, Instant.parse("2024-01-02T03:05:00Z")));
+        when(glossaryService.getGlossaries(user.getId(), null, 50, "id"))
+                .thenReturn(new SliceDTO<>(glossaryDTOList, null))
+                .thenReturn(new SliceDTO<>(List.of(), null));
+        when(glossaryService.deleteAllGlossariesByUser(user.getId()))
+                .thenReturn(new DeleteResultDTO(0, 2, 5));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL + "/user" + "/" + user.getId())
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(glossaryDTOList.size())));
+                .andExpect(jsonPath("$.content", hasSize(glossaryDTOList.size())));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .delete(baseURL + "/user" + "/" + user.getId())
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", is("Deleted all glossaries from user with id " + user.getId())));
+                .andExpect(jsonPath("$", is("Deleted all glossaries from user with id " + user.getId() + " (2 glossaries, 5 words)")));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL + "/user" + "/" + user.getId())
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.content", hasSize(0)));
 
         verify(glossaryService).deleteAllGlossariesByUser(user.getId());
     }
@@ -14,11 +14,16 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
-@SpringBootTest(classes = FlashCardsApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// the dev profile, but neither its database file nor its journal in ./data
+@SpringBootTest(classes = FlashCardsApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:it-${random.uuid}",
+                "flashcards.answers.journal-dir=${java.io.tmpdir}/flashcards-test/answers-${random.uuid}"})
 public class UserControllerIntegrationTest {
 
     @LocalServerPort
@@ -38,17 +43,20 @@ public class UserControllerIntegrationTest {
 
     @Test
     void getUsers() throws URISyntaxException {
-        List response = this.testRestTemplate.getForObject(new URI(baseURL), List.class);
-        assertEquals(1, response.size());//preloaded a User
+        Map response = this.testRestTemplate.getForObject(new URI(baseURL), Map.class);
+        // the context is shared, the other tests may have added their users already
+        long preloaded = ((List<Map>) response.get("content")).stream()
+                .filter(user -> !((String) user.get("name")).startsWith("dummy"))
+                .count();
+        assertEquals(1, preloaded);//preloaded a User
     }
 
     @Test
     void postUser() throws URISyntaxException {
         String name = "dummy";
         String password = "1234";
-        UserDTO userDTO = new UserDTO();
-        userDTO.setName(name);
-        userDTO.setPassword(password);
+        // UserDTO never writes the password, not even as a request body
+        Map<String, String> userDTO = Map.of("name", name, "password", password);
 
         ResponseEntity<UserDTO> responseEntity = this.testRestTemplate.postForEntity(new URI(baseURL), userDTO, UserDTO.class);
 
@@ -60,12 +68,12 @@ public class UserControllerIntegrationTest {
 
     @Test
     void registerUser() throws URISyntaxException {
-        String name = "dummy";
+        String name = "dummy2";
         String password = "1234";
 
         URI uri = new URI(baseURL + "/register");
         UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri)
-                .queryParam("name", name)
+                .queryParam("username", name)
                 .queryParam("password", password);
         URI finalURI = builder.build().encode().toUri();
 
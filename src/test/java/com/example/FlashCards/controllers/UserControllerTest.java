@@ -1,8 +1,14 @@
 package com.example.FlashCards.controllers;
 
+import com.example.FlashCards.DTOs.ChangeDTO;
+import com.example.FlashCards.DTOs.ChangesDTO;
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.UserDTO;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
+import com.example.FlashCards.entities.ChangeLogEntry;
 import com.example.FlashCards.entities.User;
+import com.example.FlashCards.services.ChangeLogService;
 import com.example.FlashCards.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -27,6 +33,9 @@ public class UserControllerTest {
     @MockBean
     UserService userService;
 
+    @MockBean
+    ChangeLogService changeLogService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -41,7 +50,7 @@ public class UserControllerTest {
     String baseURL = "/users";
 
     @Test
-    @DisplayName("GET /users calls UserService.getAllUsers() to return all UserDTOs without password")
+    @DisplayName("GET /users calls UserService.getUsers(cursor, limit, sort) to return the first page of UserDTOs without password")
     public void getAllUsers_success() throws Exception {
         u1 = User.builder()
                 .id(1L)//mock the process, so set the id here.
@@ -56,22 +65,23 @@ public class UserControllerTest {
         List<UserDTO> userDTOs = users.stream()
                 .map(user -> modelMapper.map(user, UserDTO.class)).collect(Collectors.toList());
 
-        when(userService.getAllUsers())
-                .thenReturn(userDTOs);
+        when(userService.getUsers(null, 50, "id"))
+                .thenReturn(new SliceDTO<>(userDTOs, "next"));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL)
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(users.size())))
-                .andExpect(jsonPath("$[0].id", is(u1.getId()), Long.class))
-                .andExpect(jsonPath("$[1].id", is(u2.getId()), Long.class))
-                .andExpect(jsonPath("$[0].name", is(u1.getName())))
+                .andExpect(jsonPath("$.content", hasSize(users.size())))
+                .andExpect(jsonPath("$.content[0].id", is(u1.getId()), Long.class))
+                .andExpect(jsonPath("$.content[1].id", is(u2.getId()), Long.class))
+                .andExpect(jsonPath("$.content[0].name", is(u1.getName())))
 //                .andExpect(jsonPath("$[*].id", containsInAnyOrder(u1.getId().intValue(), u2.getId().intValue())))//don't know how to set the target type to Iterable<Long>
-                .andExpect(jsonPath("$[*].name", containsInAnyOrder(u1.getName(), u2.getName())))
-                .andExpect(jsonPath("$[*]", not(hasKey("password"))));
-        verify(userService).getAllUsers();
+                .andExpect(jsonPath("$.content[*].name", containsInAnyOrder(u1.getName(), u2.getName())))
+                .andExpect(jsonPath("$.content[*]", not(hasKey("password"))))
+                .andExpect(jsonPath("$.next", is("next")));
+        verify(userService).getUsers(null, 50, "id");
     }
 
     @Test
@@ -169,33 +179,35 @@ public class UserControllerTest {
                 .build();
 
         UserDTO u1DTO = modelMapper.map(u1, UserDTO.class);
-        when(userService.getAllUsers())
-                .thenReturn(List.of(u1DTO))
-                .thenReturn(List.of());
+        when(userService.getUsers(null, 50, "id"))
+                .thenReturn(new SliceDTO<>(List.of(u1DTO), null))
+                .thenReturn(new SliceDTO<>(List.of(), null));
+        when(userService.deleteById(u1.getId()))
+                .thenReturn(new DeleteResultDTO(1, 2, 5));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL)
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)));
+                .andExpect(jsonPath("$.content", hasSize(1)));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .delete(baseURL + "/" + u1.getId())
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", is("Deleted use with id " + u1.getId())));
+                .andExpect(jsonPath("$", is("Deleted use with id " + u1.getId() + " (2 glossaries, 5 words)")));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseURL)
                         .accept(MediaType.APPLICATION_JSON)
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.content", hasSize(0)));
 
         verify(userService).deleteById(u1.getId());
-        verify(userService, times(2)).getAllUsers();
+        verify(userService, times(2)).getUsers(null, 50, "id");
     }
 
     @Test
@@ -213,7 +225,7 @@ public class UserControllerTest {
                 .build();
         UserDTO u1IdDTO = modelMapper.map(u1WithId, UserDTO.class);
 
-        when(userService.add(u1DTO))
+        when(userService.add(credentials(u1DTO)))
                 .thenReturn(u1IdDTO);
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -227,6 +239,13 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id", is(u1WithId.getId()), Long.class));
     }
 
+    // the controller builds its own UserDTO from the parameters, only name and password are set
+    private static UserDTO credentials(UserDTO userDTO) {
+        return argThat(dto -> dto != null
+                && userDTO.getName().equals(dto.getName())
+                && userDTO.getPassword().equals(dto.getPassword()));
+    }
+
     @Test
     @DisplayName("login success")
     public void login_success() throws Exception {
@@ -236,7 +255,7 @@ public class UserControllerTest {
                 .build();
         UserDTO u1DTO = modelMapper.map(u1, UserDTO.class);
 
-        when(userService.login(u1DTO))
+        when(userService.login(credentials(u1DTO)))
                 .thenReturn(true);
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -246,7 +265,7 @@ public class UserControllerTest {
                 )
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", equalTo("Hello, " + u1DTO.getName())));
-        verify(userService).login(u1DTO);
+        verify(userService).login(credentials(u1DTO));
     }
 
     @Test
@@ -258,7 +277,7 @@ public class UserControllerTest {
                 .build();
         UserDTO u1DTO = modelMapper.map(u1, UserDTO.class);
 
-        when(userService.login(u1DTO))
+        when(userService.login(credentials(u1DTO)))
                 .thenReturn(false);
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -269,6 +288,32 @@ public class UserControllerTest {
                 )
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$", equalTo("Incorrect username or password")));
-        verify(userService).login(u1DTO);
+        verify(userService).login(credentials(u1DTO));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/changes calls ChangeLogService.getChanges(userId, since, limit)")
+    public void getChanges_success() throws Exception {
+        ChangeDTO change = new ChangeDTO();
+        change.setSeq(8);
+        change.setEntity(ChangeLogEntry.EntityType.WORD);
+        change.setId(3L);
+        change.setGlossaryId(2L);
+        change.setOp(ChangeLogEntry.Op.DELETE);
+        when(changeLogService.getChanges(1L, "token", 10))
+                .thenReturn(new ChangesDTO(List.of(change), "next", false, false));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseURL + "/1/changes")
+                        .queryParam("since", "token")
+                        .queryParam("limit", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].op", equalTo("DELETE")))
+                .andExpect(jsonPath("$.changes[0].word").doesNotExist())
+                .andExpect(jsonPath("$.next", equalTo("next")))
+                .andExpect(jsonPath("$.reset", equalTo(false)));
+        verify(changeLogService).getChanges(1L, "token", 10);
     }
 }
@@ -0,0 +1,83 @@
+package com.example.FlashCards.datasources;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private static ReplicaLagMonitor.Replica replica(String key) {
+        return new ReplicaLagMonitor.Replica(key,
+                new DriverManagerDataSource("jdbc:h2:mem:" + key + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    private static ReadWriteRoutingDataSource routing(String lagQuery, String... keys) {
+        List<ReplicaLagMonitor.Replica> replicas = Arrays.stream(keys).map(key -> replica(key)).toList();
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, lagQuery, "", Duration.ofSeconds(5));
+        monitor.check();
+        return new ReadWriteRoutingDataSource(monitor);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.setReplicaRead(false);
+        ReadWriteRoutingDataSource.setStickyPrimary(false);
+    }
+
+    @Test
+    @DisplayName("Only readOnly transactions of @ReplicaRead methods go to a replica.")
+    public void replicaRead() {
+        ReadWriteRoutingDataSource routing = routing("select 0", "replica-0");
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        ReadWriteRoutingDataSource.setReplicaRead(true);
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("After its own write a client reads from the primary.")
+    public void stickyPrimary() {
+        ReadWriteRoutingDataSource routing = routing("select 0", "replica-0");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.setReplicaRead(true);
+
+        ReadWriteRoutingDataSource.setStickyPrimary(true);
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("A replica behind by more than the max lag gets no reads.")
+    public void replicaLag() {
+        ReadWriteRoutingDataSource routing = routing("select 10", "replica-0");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.setReplicaRead(true);
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void roundRobin() {
+        ReadWriteRoutingDataSource routing = routing("", "replica-0", "replica-1");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.setReplicaRead(true);
+
+        assertEquals(List.of("replica-0", "replica-1", "replica-0"), List.of(
+                routing.determineCurrentLookupKey(),
+                routing.determineCurrentLookupKey(),
+                routing.determineCurrentLookupKey()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.FlashCards.datasources;
+
+import com.example.FlashCards.exceptions.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardDirectoryTest {
+
+    private static final List<String> URLS = List.of("jdbc:h2:mem:s0", "jdbc:h2:mem:s1", "jdbc:h2:mem:s2");
+
+    @Test
+    @DisplayName("Ids route by their high bits, ids of no shard are not found.")
+    public void shardOfId() {
+        ShardDirectory directory = new ShardDirectory(URLS, "hash", List.of());
+
+        assertEquals(0, directory.shardOfId(1));
+        assertEquals(1, directory.shardOfId(ShardDirectory.firstId(1) + 1));
+        assertEquals(2, directory.shardOfId(ShardDirectory.firstId(3) - 1));
+        assertThatThrownBy(() -> directory.shardOfId(ShardDirectory.firstId(3)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void shardOfName_hash() {
+        ShardDirectory directory = new ShardDirectory(URLS, "hash", List.of());
+
+        assertEquals(Math.floorMod("u1".hashCode(), 3), directory.shardOfName("u1"));
+        assertEquals(directory.shardOfName("u1"), directory.shardOfName("u1"));
+    }
+
+    @Test
+    public void shardOfName_range() {
+        ShardDirectory directory = new ShardDirectory(URLS, "range", List.of("h", "p"));
+
+        assertEquals(0, directory.shardOfName("anna"));
+        assertEquals(1, directory.shardOfName("h"));
+        assertEquals(1, directory.shardOfName("otto"));
+        assertEquals(2, directory.shardOfName("zoe"));
+    }
+
+    @Test
+    @DisplayName("Without shard urls everything is on shard 0.")
+    public void unsharded() {
+        ShardDirectory directory = new ShardDirectory(List.of(), "hash", List.of());
+
+        assertFalse(directory.sharded());
+        assertEquals(0, directory.shardOfName("u1"));
+    }
+
+    @Test
+    public void rangeBounds_failure() {
+        assertThatThrownBy(() -> new ShardDirectory(URLS, "range", List.of("h")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ShardDirectory(URLS, "range", List.of("p", "h")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
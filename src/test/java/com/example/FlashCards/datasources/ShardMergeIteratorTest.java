@@ -0,0 +1,59 @@
+package com.example.FlashCards.datasources;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ShardMergeIteratorTest {
+
+    // pages of a sorted list after the last row, counting the loads
+    private static Function<Integer, List<Integer>> pages(List<Integer> rows, int pageSize, AtomicInteger loads) {
+        return last -> {
+            loads.incrementAndGet();
+            return rows.stream()
+                    .filter(row -> last == null || row > last)
+                    .limit(pageSize)
+                    .toList();
+        };
+    }
+
+    @Test
+    @DisplayName("Rows of all sources come in order, over several pages each.")
+    public void merge() {
+        AtomicInteger loads = new AtomicInteger();
+        ShardMergeIterator<Integer> merged = new ShardMergeIterator<>(Comparator.naturalOrder(), 2, List.of(
+                pages(List.of(1, 4, 5, 9), 2, loads),
+                pages(List.of(2, 3, 8), 2, loads),
+                pages(List.of(), 2, loads)));
+
+        List<Integer> rows = new ArrayList<>();
+        merged.forEachRemaining(rows::add);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 8, 9), rows);
+        // 3 + 2 + 1, a short page is the last one
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    @DisplayName("A source loads its next page only when the merge gets there.")
+    public void merge_lazy() {
+        AtomicInteger loads = new AtomicInteger();
+        ShardMergeIterator<Integer> merged = new ShardMergeIterator<>(Comparator.naturalOrder(), 2, List.of(
+                pages(List.of(1, 2, 3, 4), 2, loads),
+                pages(List.of(10, 11, 12), 2, loads)));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, merged.next());
+        assertEquals(2, loads.get());
+        // taking 2 moves the first source on to its second page
+        assertEquals(2, merged.next());
+        assertEquals(3, loads.get());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.FlashCards.datasources;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import com.example.FlashCards.services.GlossaryService;
+import com.example.FlashCards.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+// "u1" hashes to shard 0, "u2" to shard 1
+@ActiveProfiles("test")
+@SpringBootTest(properties = "flashcards.sharding.shard-urls="
+        + "jdbc:h2:mem:shard-test-0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-test-1;DB_CLOSE_DELAY=-1")
+public class ShardingTest {
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    GlossaryService glossaryService;
+    @Autowired
+    Shards shards;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+
+    UserDTO u1;
+    UserDTO u2;
+
+    private static UserDTO user(String name) {
+        UserDTO user = new UserDTO();
+        user.setName(name);
+        user.setPassword("p-" + name);
+        return user;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        u1 = userService.add(user("u1"));
+        u2 = userService.add(user("u2"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        shards.execute(() -> {
+            wordRepository.deleteAll();
+            glossaryRepository.deleteAll();
+            userRepository.deleteAll();
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("Users are placed by name and their ids carry the shard.")
+    public void add_placement() {
+        assertEquals(0, shards.shardOfId(u1.getId()));
+        assertEquals(1, shards.shardOfId(u2.getId()));
+        assertEquals(List.of(1L, 1L), shards.query(() -> userRepository.count()));
+    }
+
+    @Test
+    public void getAllUsers_merged() {
+        assertEquals(List.of("u1", "u2"), userService.getAllUsers().stream().map(UserDTO::getName).toList());
+    }
+
+    @Test
+    public void login_success() {
+        assertTrue(userService.login(user("u2")));
+        assertEquals(u2.getId(), userService.getUserByName("u2").getId());
+        assertEquals("u2", userService.getUserById(u2.getId()).getName());
+    }
+
+    @Test
+    @DisplayName("A renamed user stays on its shard and is still found by the new name.")
+    public void updateUser_rename() {
+        // "u3" hashes to shard 0
+        userService.updateUser(user("u3"), u2.getId());
+
+        assertEquals(u2.getId(), userService.getUserByName("u3").getId());
+        assertTrue(userService.login(user("u3")));
+        assertThatThrownBy(() -> userService.updateUser(user("u1"), u2.getId()))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Glossaries go to the shard of their user.")
+    public void addGlossary_routing() {
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setName("g1");
+
+        GlossaryDTO saved = glossaryService.addGlossary(u2.getId(), glossaryDTO);
+
+        assertEquals(1, shards.shardOfId(saved.getId()));
+        assertEquals("g1", glossaryService.getGlossaryById(saved.getId()).getName());
+        assertEquals(List.of(0L, 1L), shards.query(() -> glossaryRepository.count()));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.FlashCards.ingest;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AnswerJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    private AnswerJournal journal(long segmentBytes) throws Exception {
+        return new AnswerJournal(objectMapper, dir.toString(), false, segmentBytes);
+    }
+
+    private static AnswerEventDTO event(String eventId) {
+        AnswerEventDTO event = new AnswerEventDTO();
+        event.setEventId(eventId);
+        event.setWordId(1L);
+        event.setGrade(4);
+        event.setAnsweredAt(Instant.parse("2024-01-01T10:00:00Z"));
+        return event;
+    }
+
+    private static List<String> eventIds(List<AnswerJournal.Entry> entries) {
+        return entries.stream().map(entry -> entry.event().getEventId()).toList();
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Answers not committed before a restart are replayed, in order, the committed ones are not.")
+    public void replay_afterCheckpoint() throws Exception {
+        AnswerJournal journal = journal(1024 * 1024);
+        List<AnswerJournal.Entry> entries = journal.append(List.of(event("e1"), event("e2")));
+        journal.append(List.of(event("e3")));
+        journal.commit(entries.get(0).end());
+        journal.close();
+
+        AnswerJournal restarted = journal(1024 * 1024);
+        assertEquals(List.of("e2", "e3"), eventIds(restarted.replay()));
+        // this run's answers are not replayed
+        restarted.append(List.of(event("e4")));
+        assertEquals(List.of("e2", "e3"), eventIds(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("Segments before the checkpoint are deleted.")
+    public void commit_deletesSegments() throws Exception {
+        AnswerJournal journal = journal(1);// every append in its own segment
+        journal.append(List.of(event("e1")));
+        journal.append(List.of(event("e2")));
+        List<AnswerJournal.Entry> last = journal.append(List.of(event("e3")));
+        assertEquals(3, segmentFiles());
+
+        journal.commit(last.get(0).end());
+        assertEquals(1, segmentFiles());
+        journal.close();
+
+        AnswerJournal restarted = journal(1);
+        assertEquals(List.of(), eventIds(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("A torn last line, e.g. from a crash in the middle of a write, is skipped.")
+    public void replay_tornLine() throws Exception {
+        AnswerJournal journal = journal(1024 * 1024);
+        journal.append(List.of(event("e1")));
+        journal.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            Path segment = files.filter(path -> path.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(segment, "{\"eventId\":\"e2\",\"wor".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        AnswerJournal restarted = journal(1024 * 1024);
+        assertEquals(List.of("e1"), eventIds(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("A sync forces everything written before it, later syncs up to there need no force of their own.")
+    public void sync_sharedForce() throws Exception {
+        AnswerJournal journal = new AnswerJournal(objectMapper, dir.toString(), true, 1024 * 1024);
+        AnswerJournal.Entry first = journal.write(List.of(event("e1"))).get(0);
+        AnswerJournal.Entry second = journal.write(List.of(event("e2"))).get(0);
+
+        journal.sync(second.end());
+        journal.sync(first.end());
+        assertEquals(1, journal.forces());
+
+        journal.append(List.of(event("e3")));
+        assertEquals(2, journal.forces());
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("A roll forces the segment it leaves, a sync of its answers finds them on disk.")
+    public void sync_afterRoll() throws Exception {
+        AnswerJournal journal = new AnswerJournal(objectMapper, dir.toString(), true, 1);
+        AnswerJournal.Entry first = journal.write(List.of(event("e1"))).get(0);
+        journal.write(List.of(event("e2")));
+        assertEquals(1, journal.forces());
+
+        journal.sync(first.end());
+        assertEquals(1, journal.forces());
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Dead letters are kept apart from the segments and never replayed.")
+    public void deadLetter_notReplayed() throws Exception {
+        AnswerJournal journal = journal(1024 * 1024);
+        List<AnswerJournal.Entry> entries = journal.append(List.of(event("e1"), event("e2")));
+        journal.deadLetter(entries);
+        journal.commit(entries.get(1).end());
+        journal.close();
+
+        assertEquals(2, Files.readAllLines(dir.resolve("dead-letters.log")).size());
+        AnswerJournal restarted = journal(1024 * 1024);
+        assertEquals(List.of(), eventIds(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    public void journal_locked() throws Exception {
+        AnswerJournal journal = journal(1024 * 1024);
+        assertThatThrownBy(() -> journal(1024 * 1024))
+                .isInstanceOf(IllegalStateException.class);
+        journal.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.FlashCards.search;
+
+import com.example.FlashCards.DTOs.WordHitDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WordSearchIndexTest {
+
+    WordSearchIndex wordSearchIndex;
+    AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        wordSearchIndex = new WordSearchIndex(1000, Duration.ofMinutes(30));
+        loads = new AtomicInteger();
+    }
+
+    private List<String> search(String query) {
+        return wordSearchIndex.search(1L, query, 10, () -> {
+                    loads.incrementAndGet();
+                    return List.of(
+                            new WordHitDTO(1L, "Apple", 10L),
+                            new WordHitDTO(2L, "application", 10L),
+                            new WordHitDTO(3L, "pineapple", 20L),
+                            new WordHitDTO(4L, "banana", 20L));
+                }).stream()
+                .map(WordHitDTO::getName)
+                .toList();
+    }
+
+    @Test
+    public void search_prefixThenInfix() {
+        assertEquals(List.of("Apple", "application", "pineapple"), search("app"));
+        assertEquals(List.of("banana"), search("NAN"));
+        assertEquals(List.of("Apple", "pineapple"), search("pple"));
+        assertEquals(List.of(), search("cherry"));
+        // too short for a trigram, prefix matches only
+        assertEquals(List.of("banana"), search("b"));
+        assertEquals(List.of(), search("na"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void search_updatedIncrementally() {
+        search("a");
+
+        wordSearchIndex.add(1L, new WordHitDTO(5L, "apricot", 10L));
+        wordSearchIndex.add(1L, new WordHitDTO(1L, "crabapple", 10L));
+        wordSearchIndex.remove(1L, 2L);
+
+        assertEquals(List.of("apricot"), search("ap"));
+        assertEquals(List.of("apricot"), search("apr"));
+        assertEquals(List.of("crabapple", "pineapple"), search("apple"));
+
+        wordSearchIndex.removeGlossary(1L, 20L);
+        assertEquals(List.of("crabapple"), search("apple"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void search_invalidated() {
+        search("a");
+        wordSearchIndex.invalidate(1L);
+        search("a");
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void add_reweighsIndex() {
+        wordSearchIndex = new WordSearchIndex(6, Duration.ofMinutes(30));
+        search("a");
+        assertEquals(4, wordSearchIndex.words());
+
+        wordSearchIndex.add(1L, new WordHitDTO(5L, "apricot", 10L));
+        assertEquals(5, wordSearchIndex.words());
+
+        // over the limit now, the index is dropped and built again on the next search
+        wordSearchIndex.addAll(1L, List.of(new WordHitDTO(6L, "avocado", 10L), new WordHitDTO(7L, "almond", 10L)));
+        assertEquals(0, wordSearchIndex.words());
+        search("a");
+        assertEquals(2, loads.get());
+    }
+}
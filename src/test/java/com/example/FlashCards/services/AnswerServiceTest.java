@@ -0,0 +1,145 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.AnswerEventDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.entities.AnswerEvent;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.ReviewCard;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.ingest.AnswerWriter;
+import com.example.FlashCards.repositories.AnswerEventRepository;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class AnswerServiceTest {
+
+    @Autowired
+    AnswerService answerService;
+    @Autowired
+    AnswerWriter answerWriter;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
+    @Autowired
+    AnswerEventRepository answerEventRepository;
+
+    Glossary glossary;
+    WordDTO w1;
+
+    @BeforeEach
+    public void setUp() {
+        User user = userRepository.save(User.builder()
+                .name("u1")
+                .password("p1")
+                .build());
+        glossary = glossaryRepository.save(Glossary.builder()
+                .name("g1")
+                .user(user)
+                .build());
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName("w1");
+        w1 = wordService.addWord(glossary.getId(), wordDTO);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        // cards and answers are deleted along with the words by the database
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private AnswerEventDTO answer(String eventId, Long wordId, int grade, String answeredAt) {
+        AnswerEventDTO event = new AnswerEventDTO();
+        event.setEventId(eventId);
+        event.setWordId(wordId);
+        event.setGrade(grade);
+        event.setAnsweredAt(answeredAt == null ? null : Instant.parse(answeredAt));
+        return event;
+    }
+
+    @Test
+    @DisplayName("A batch is applied to the cards in the order the answers were given.")
+    public void apply_success() {
+        int written = answerService.apply(List.of(
+                answer("e2", w1.getId(), 5, "2024-01-02T10:00:00Z"),
+                answer("e1", w1.getId(), 5, "2024-01-01T10:00:00Z")));
+
+        assertEquals(2, written);
+        ReviewCard card = reviewCardRepository.findById(w1.getId()).orElseThrow();
+        assertEquals(2, card.getRepetitions());
+        assertEquals(6, card.getIntervalDays());
+        assertEquals(Instant.parse("2024-01-02T10:00:00Z"), card.getLastReviewedAt());
+        assertEquals(List.of("e1", "e2"), answerEventRepository.findByWordIdOrderByAnsweredAt(w1.getId()).stream()
+                .map(AnswerEvent::getEventId)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Answers already written (a replay or a retry) and answers to unknown words are skipped.")
+    public void apply_skipped() {
+        answerService.apply(List.of(answer("e1", w1.getId(), 5, "2024-01-01T10:00:00Z")));
+
+        int written = answerService.apply(List.of(
+                answer("e1", w1.getId(), 5, "2024-01-01T10:00:00Z"),
+                answer("e2", w1.getId() + 1000, 5, "2024-01-01T10:00:00Z"),
+                answer("e3", w1.getId(), 5, "2024-01-03T10:00:00Z"),
+                answer("e3", w1.getId(), 5, "2024-01-03T10:00:00Z")));
+
+        assertEquals(1, written);
+        assertEquals(2, reviewCardRepository.findById(w1.getId()).orElseThrow().getRepetitions());
+        assertEquals(2, answerEventRepository.findByWordIdOrderByAnsweredAt(w1.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Submitted answers reach the database through the journal and the background writer.")
+    public void submit_success() throws Exception {
+        AnswerEventDTO event = answer(null, w1.getId(), 4, null);
+        assertTrue(answerWriter.submit(List.of(event)));
+        assertNotNull(event.getEventId());
+        assertNotNull(event.getAnsweredAt());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (answerEventRepository.findByWordIdOrderByAnsweredAt(w1.getId()).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, reviewCardRepository.findById(w1.getId()).orElseThrow().getRepetitions());
+    }
+
+    @Test
+    public void submit_failure() {
+        assertThatThrownBy(() -> answerWriter.submit(List.of(answer(null, w1.getId(), 6, null))))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> answerWriter.submit(List.of(answer(null, null, 3, null))))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> answerWriter.submit(List.of()))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.ChangeDTO;
+import com.example.FlashCards.DTOs.ChangesDTO;
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.datasources.Shards;
+import com.example.FlashCards.entities.ChangeLogEntry.EntityType;
+import com.example.FlashCards.entities.ChangeLogEntry.Op;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.ChangeLogRepository;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ChangeLogServiceTest {
+
+    @Autowired
+    ChangeLogService changeLogService;
+    @Autowired
+    UserService userService;
+    @Autowired
+    GlossaryService glossaryService;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    Shards shards;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    UserDTO user;
+    String start;
+
+    @BeforeEach
+    public void setUp() {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setName("u1");
+        userDTO.setPassword("p1");
+        user = userService.add(userDTO);
+
+        ChangesDTO first = changeLogService.getChanges(user.getId(), null, 50);
+        assertTrue(first.isReset());
+        assertTrue(first.getChanges().isEmpty());
+        start = first.getNext();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private GlossaryDTO glossary(String name) {
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setName(name);
+        return glossaryService.addGlossary(user.getId(), glossaryDTO);
+    }
+
+    private WordDTO word(GlossaryDTO glossary, String name) {
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName(name);
+        return wordService.addWord(glossary.getId(), wordDTO);
+    }
+
+    private ChangesDTO since(String token) {
+        return changeLogService.getChanges(user.getId(), token, 50);
+    }
+
+    private static void assertChange(ChangeDTO change, EntityType entity, Long id, Op op) {
+        assertEquals(entity, change.getEntity());
+        assertEquals(id, change.getId());
+        assertEquals(op, change.getOp());
+    }
+
+    @Test
+    @DisplayName("Every change of glossaries and words is in the log in order, upserts with the current state.")
+    public void getChanges() {
+        GlossaryDTO g1 = glossary("g1");
+        WordDTO w1 = word(g1, "w1");
+        WordDTO w2 = word(g1, "w2");
+        w1.setName("w1b");
+        wordService.updateWord(w1, w1.getId());
+        wordService.deleteWord(w2.getId());
+
+        ChangesDTO changes = since(start);
+        assertFalse(changes.isReset());
+        assertFalse(changes.isMore());
+        List<ChangeDTO> entries = changes.getChanges();
+        assertEquals(5, entries.size());
+        assertChange(entries.get(0), EntityType.GLOSSARY, g1.getId(), Op.UPSERT);
+        assertEquals("g1", entries.get(0).getGlossary().getName());
+        assertChange(entries.get(1), EntityType.WORD, w1.getId(), Op.UPSERT);
+        // the current state, not the one of the change
+        assertEquals("w1b", entries.get(1).getWord().getName());
+        assertEquals(g1.getId(), entries.get(1).getGlossaryId());
+        assertChange(entries.get(2), EntityType.WORD, w2.getId(), Op.UPSERT);
+        assertNull(entries.get(2).getWord());
+        assertChange(entries.get(3), EntityType.WORD, w1.getId(), Op.UPSERT);
+        assertChange(entries.get(4), EntityType.WORD, w2.getId(), Op.DELETE);
+        for (int i = 1; i < entries.size(); i++) {
+            assertEquals(entries.get(i - 1).getSeq() + 1, entries.get(i).getSeq());
+        }
+
+        // nothing new since the last token
+        ChangesDTO none = since(changes.getNext());
+        assertTrue(none.getChanges().isEmpty());
+        assertEquals(changes.getNext(), none.getNext());
+    }
+
+    @Test
+    @DisplayName("Bulk adds get an entry per word, bulk and cascading deletes one tombstone per scope.")
+    public void getChanges_bulk() {
+        GlossaryDTO g1 = glossary("g1");
+        GlossaryDTO g2 = glossary("g2");
+        List<Long> ids = wordService.addWords(g1.getId(), List.of("w1", "w2", "w3"));
+        String afterAdds = since(start).getNext();
+        wordService.deleteAllWordInGlossary(g1.getId());
+        word(g2, "w4");
+        glossaryService.deleteGlossary(g2.getId());
+        glossary("g3");
+        glossaryService.deleteAllGlossariesByUser(user.getId());
+
+        List<ChangeDTO> adds = since(start).getChanges();
+        assertEquals(ids, adds.subList(2, 5).stream().map(ChangeDTO::getId).toList());
+
+        List<ChangeDTO> entries = since(afterAdds).getChanges();
+        assertEquals(5, entries.size());
+        assertChange(entries.get(0), EntityType.GLOSSARY, g1.getId(), Op.CLEAR);
+        assertEquals(EntityType.WORD, entries.get(1).getEntity());
+        assertChange(entries.get(2), EntityType.GLOSSARY, g2.getId(), Op.DELETE);
+        assertEquals(EntityType.GLOSSARY, entries.get(3).getEntity());
+        assertChange(entries.get(4), EntityType.USER, user.getId(), Op.CLEAR);
+    }
+
+    @Test
+    @DisplayName("A renamed user is a change too, glossaries and words embed it. A CLEAR of the user doesn't compact it away.")
+    public void getChanges_userRenamed() {
+        glossary("g1");
+        UserDTO patch = new UserDTO();
+        patch.setName("u1b");
+        patch.setVersion(userService.getUserById(user.getId()).getVersion());
+        userService.patchUser(patch, user.getId());
+        glossaryService.deleteAllGlossariesByUser(user.getId());
+
+        List<ChangeDTO> entries = since(start).getChanges();
+        assertEquals(3, entries.size());
+        assertChange(entries.get(1), EntityType.USER, user.getId(), Op.UPSERT);
+        assertEquals("u1b", entries.get(1).getUser().getName());
+        assertNull(entries.get(1).getUser().getPassword());
+        assertChange(entries.get(2), EntityType.USER, user.getId(), Op.CLEAR);
+
+        ChangeLogCompactor compactor = new ChangeLogCompactor(changeLogRepository, userRepository, shards, transactionManager,
+                Clock.offset(Clock.systemUTC(), Duration.ofHours(2)), Duration.ofHours(1), Duration.ofDays(30), 1);
+        assertEquals(1, compactor.compact());
+        List<ChangeDTO> snapshot = since(start).getChanges();
+        assertEquals(2, snapshot.size());
+        assertChange(snapshot.get(0), EntityType.USER, user.getId(), Op.UPSERT);
+        assertChange(snapshot.get(1), EntityType.USER, user.getId(), Op.CLEAR);
+    }
+
+    @Test
+    @DisplayName("Pages of limit entries, the next token goes on where the page ended.")
+    public void getChanges_pages() {
+        GlossaryDTO g1 = glossary("g1");
+        wordService.addWords(g1.getId(), List.of("w1", "w2", "w3", "w4"));
+
+        List<ChangeDTO> all = new ArrayList<>();
+        String token = start;
+        ChangesDTO page;
+        do {
+            page = changeLogService.getChanges(user.getId(), token, 2);
+            all.addAll(page.getChanges());
+            token = page.getNext();
+        } while (page.isMore());
+        assertEquals(since(start).getChanges(), all);
+        assertEquals(5, all.size());
+    }
+
+    @Test
+    public void getChanges_invalid() {
+        assertThatThrownBy(() -> since("nope"))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> changeLogService.getChanges(user.getId(), start, 0))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> changeLogService.getChanges(user.getId() + 1000, start, 50))
+                .isInstanceOf(NotFoundException.class);
+        // a token the user never handed out, e.g. from before a restore
+        assertTrue(since(ChangeLogService.encode(1000)).isReset());
+    }
+
+    @Test
+    @DisplayName("Compaction keeps the last entry per entity, dropping old tombstones makes older tokens start over.")
+    public void compact() {
+        GlossaryDTO g1 = glossary("g1");
+        WordDTO w1 = word(g1, "w1");
+        WordDTO w2 = word(g1, "w2");
+        w1.setName("w1b");
+        wordService.updateWord(w1, w1.getId());
+        wordService.deleteWord(w2.getId());
+        String end = since(start).getNext();
+
+        // past compact-after, before the tombstone retention
+        ChangeLogCompactor compactor = new ChangeLogCompactor(changeLogRepository, userRepository, shards, transactionManager,
+                Clock.offset(Clock.systemUTC(), Duration.ofHours(2)), Duration.ofHours(1), Duration.ofDays(30), 1);
+        assertEquals(2, compactor.compact());
+        ChangesDTO snapshot = since(start);
+        assertFalse(snapshot.isReset());
+        assertEquals(3, snapshot.getChanges().size());
+        assertChange(snapshot.getChanges().get(0), EntityType.GLOSSARY, g1.getId(), Op.UPSERT);
+        assertChange(snapshot.getChanges().get(1), EntityType.WORD, w1.getId(), Op.UPSERT);
+        assertChange(snapshot.getChanges().get(2), EntityType.WORD, w2.getId(), Op.DELETE);
+        assertEquals(end, snapshot.getNext());
+
+        // past the retention: the tombstone goes, a token from before it starts over
+        compactor = new ChangeLogCompactor(changeLogRepository, userRepository, shards, transactionManager,
+                Clock.offset(Clock.systemUTC(), Duration.ofDays(31)), Duration.ofHours(1), Duration.ofDays(30), 1);
+        assertEquals(1, compactor.compact());
+        assertTrue(since(start).isReset());
+        assertEquals(end, since(start).getNext());
+        assertFalse(since(end).isReset());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "flashcards.counters.reconcile-chunk-size=1")
+public class CounterReconcilerTest {
+
+    @Autowired
+    CounterReconciler counterReconciler;
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    GlossaryService glossaryService;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    UserDTO user;
+    GlossaryDTO g1;
+
+    private GlossaryDTO glossary(String name) {
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setName(name);
+        return glossaryService.addGlossary(user.getId(), glossaryDTO);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setName("u1");
+        userDTO.setPassword("p1");
+        user = userService.add(userDTO);
+        g1 = glossary("g1");
+        glossary("g2");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Adding and deleting words and glossaries keeps the counters.")
+    public void counters_maintained() {
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName("w1");
+        WordDTO w1 = wordService.addWord(g1.getId(), wordDTO);
+        wordService.addWords(g1.getId(), List.of("w2", "w3"));
+        wordService.deleteWord(w1.getId());
+
+        GlossaryDTO found = glossaryService.getGlossaryById(g1.getId());
+        assertEquals(2, found.getWordCount());
+        assertTrue(found.getLastActivityAt().isAfter(found.getCreatedAt()));
+        assertEquals(2, userService.getUserById(user.getId()).getGlossaryCount());
+
+        wordService.deleteAllWordInGlossary(g1.getId());
+        glossaryService.deleteGlossary(g1.getId());
+
+        assertEquals(1, userService.getUserById(user.getId()).getGlossaryCount());
+        assertEquals(0, counterReconciler.reconcile());
+    }
+
+    @Test
+    @DisplayName("Counters changed behind the services' back are repaired, chunk by chunk.")
+    public void reconcile_repairs() {
+        wordService.addWords(g1.getId(), List.of("w1", "w2"));
+        jdbcTemplate.update("update glossaries set word_count = 42");
+        jdbcTemplate.update("update users set glossary_count = 0");
+
+        // two glossaries and one user
+        assertEquals(3, counterReconciler.reconcile());
+
+        assertEquals(2, glossaryService.getGlossaryById(g1.getId()).getWordCount());
+        assertEquals(2, userService.getUserById(user.getId()).getGlossaryCount());
+        assertEquals(0, counterReconciler.reconcile());
+    }
+}
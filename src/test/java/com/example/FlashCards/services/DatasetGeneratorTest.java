@@ -0,0 +1,81 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class DatasetGeneratorTest {
+
+    @Autowired
+    DatasetGenerator datasetGenerator;
+    @Autowired
+    CounterReconciler counterReconciler;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        reviewCardRepository.deleteAll();
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Generates unique names with the counters set, and the services go on with ids past the generated ones.")
+    public void generate_success() {
+        DatasetGenerator.Result result = datasetGenerator.generate(new DatasetGenerator.Spec(50, 4, 30, "p", 1));
+
+        assertEquals(6000, result.words());
+        assertEquals(50, userRepository.count());
+        assertEquals(200, glossaryRepository.count());
+        assertEquals(6000, wordRepository.count());
+        assertEquals(50, jdbcTemplate.queryForObject("select count(distinct name) from users", Long.class));
+        assertEquals(0, counterReconciler.reconcile());
+
+        // the pooled optimizer first hands out the rest of its block, then a block past the generated ids
+        Long glossaryId = jdbcTemplate.queryForObject("select max(glossary_id) from glossaries", Long.class);
+        Long minWordId = jdbcTemplate.queryForObject("select min(word_id) from words", Long.class);
+        Long maxWordId = jdbcTemplate.queryForObject("select max(word_id) from words", Long.class);
+        for (int i = 0; i < 60; i++) {
+            WordDTO wordDTO = new WordDTO();
+            wordDTO.setName("not generated " + i);
+            Long wordId = wordService.addWord(glossaryId, wordDTO).getId();
+            assertTrue(wordId < minWordId || wordId > maxWordId, "id " + wordId + " within the generated ids");
+        }
+
+        assertThatThrownBy(() -> datasetGenerator.generate(new DatasetGenerator.Spec(1, 1, 1, "p", 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void syllables_unique() {
+        assertNotEquals(DatasetGenerator.syllables(0), DatasetGenerator.syllables(1));
+        assertTrue(DatasetGenerator.syllables(0).length() < DatasetGenerator.syllables(100_000).length());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ExportServiceTest {
+
+    @Autowired
+    ExportService exportService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @AfterEach
+    public void cleanUp() {
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void export_success() throws Exception {
+        User user = userRepository.save(User.builder().name("u1").password("p1").build());
+        Glossary g1 = glossaryRepository.save(Glossary.builder().name("g1").user(user).build());
+        Glossary g2 = glossaryRepository.save(Glossary.builder().name("g2").user(user).build());
+        Word w1 = wordRepository.save(Word.builder().name("w1").glossary(g1).build());
+        Word w2 = wordRepository.save(Word.builder().name("w2").glossary(g1).build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(user.getId(), out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"));
+        assertFalse(ndjson.contains("p1"));
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertEquals(List.of("user", "glossary", "word", "word", "glossary"),
+                lines.stream().map(line -> line.get("type").asText()).toList());
+        assertEquals(List.of(user.getId(), g1.getId(), w1.getId(), w2.getId(), g2.getId()),
+                lines.stream().map(line -> line.get("id").asLong()).toList());
+        assertEquals(g1.getId(), lines.get(3).get("glossaryId").asLong());
+        assertEquals("w2", lines.get(3).get("name").asText());
+    }
+
+    @Test
+    public void export_failure() {
+        assertThatThrownBy(() -> exportService.export(-1L, new ByteArrayOutputStream()))
+                .isInstanceOf(NotFoundException.class);
+    }
+}
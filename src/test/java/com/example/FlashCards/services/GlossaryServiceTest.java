@@ -1,11 +1,19 @@
 package com.example.FlashCards.services;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
 import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.ListVersionDTO;
+import com.example.FlashCards.DTOs.WordDTO;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
 import com.example.FlashCards.entities.Glossary;
 import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.ConflictException;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
 import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
 import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +25,7 @@ import org.springframework.test.context.ActiveProfiles;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -34,6 +43,12 @@ public class GlossaryServiceTest {
     GlossaryRepository glossaryRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    WordService wordService;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
 
     Entity2DTOMapper modelMapper = new Entity2DTOMapper();
 
@@ -72,6 +87,7 @@ public class GlossaryServiceTest {
     public void getGlossaryById_success() {
         Glossary expectedGlossary = glossaryRepository.save(g1);
         GlossaryDTO expectedGlossaryDTO = modelMapper.map(expectedGlossary, GlossaryDTO.class);
+        expectedGlossaryDTO.getUserDTO().setPassword(null);//reads never select the password
 
         GlossaryDTO testGlossaryDTO = glossaryService.getGlossaryById(expectedGlossaryDTO.getId());
 
@@ -87,6 +103,11 @@ public class GlossaryServiceTest {
         Glossary expectedGlossary2 = glossaryRepository.save(g2);
         List<GlossaryDTO> expectedGlossaryDTOList = Stream.of(expectedGlossary1, expectedGlossary2)
                 .map(glossary -> modelMapper.map(glossary, GlossaryDTO.class))
+                .peek(glossaryDTO -> {
+                    glossaryDTO.getUserDTO().setPassword(null);
+                    glossaryDTO.setWordCount(0L);
+                    glossaryDTO.setLastActivityAt(glossaryDTO.getCreatedAt());
+                })
                 .toList();
 
         List<GlossaryDTO> testGlossaryDTO = glossaryService.getAllGlossaries(user.getId());
@@ -136,8 +157,9 @@ public class GlossaryServiceTest {
         assertThat(glossaryRepository.findAll(), hasSize(1));
         assertThat(glossaryRepository.findById(savedGlossary.getId()).get(), equalTo(savedGlossary));
 
-        glossaryService.deleteGlossary(savedGlossary.getId());
+        DeleteResultDTO deleted = glossaryService.deleteGlossary(savedGlossary.getId());
 
+        assertEquals(new DeleteResultDTO(0, 1, 0), deleted);
         assertThat(glossaryRepository.findAll(), hasSize(0));
         assertThat(userRepository.findAll(), hasSize(1));
     }
@@ -151,9 +173,86 @@ public class GlossaryServiceTest {
         assertThat(glossaryRepository.findAll(), hasSize(2));
         assertThat(glossaryRepository.findAll(), equalTo(List.of(savedGlossary1, savedGlossary2)));
 
-        glossaryService.deleteAllGlossariesByUser(savedUser.getId());
+        DeleteResultDTO deleted = glossaryService.deleteAllGlossariesByUser(savedUser.getId());
+
+        assertEquals(new DeleteResultDTO(0, 2, 0), deleted);
+        assertThat(glossaryRepository.findAll(), hasSize(0));
+        assertThat(userRepository.findAll(), hasSize(1));
+    }
+
+    @Test
+    @DisplayName("Delete all glossaries of a user together with their words and review cards, in bulk.")
+    public void deleteAllGlossaries_withWords() {
+        glossaryRepository.save(g1);
+        glossaryRepository.save(g2);
+        WordDTO wordDTO = new WordDTO();
+        for (String name : List.of("w1", "w2", "w3")) {
+            wordDTO.setName(name);
+            wordService.addWord(name.equals("w3") ? g2.getId() : g1.getId(), wordDTO);
+        }
+        assertThat(reviewCardRepository.findAll(), hasSize(3));
+
+        DeleteResultDTO deleted = glossaryService.deleteAllGlossariesByUser(savedUser.getId());
 
+        assertEquals(new DeleteResultDTO(0, 2, 3), deleted);
+        assertThat(wordRepository.findAll(), hasSize(0));
+        assertThat(reviewCardRepository.findAll(), hasSize(0));
         assertThat(glossaryRepository.findAll(), hasSize(0));
         assertThat(userRepository.findAll(), hasSize(1));
     }
+
+    @Test
+    @DisplayName("Adding a glossary bumps the version of the glossary list, renaming it bumps its word list as well.")
+    public void listVersions_bumped() {
+        Glossary savedG1 = glossaryRepository.save(g1);
+        ListVersionDTO glossaries = glossaryService.getGlossariesVersion(savedUser.getId());
+        ListVersionDTO words = wordService.getWordsVersion(savedG1.getId());
+
+        glossaryService.addGlossary(savedUser.getId(), modelMapper.map(g2, GlossaryDTO.class));
+        ListVersionDTO glossariesAfterAdd = glossaryService.getGlossariesVersion(savedUser.getId());
+        GlossaryDTO rename = new GlossaryDTO();
+        rename.setName("new g");
+        glossaryService.updateGlossary(rename, savedG1.getId());
+
+        assertEquals(0, glossaries.getVersion());
+        assertEquals(savedG1.getCreatedAt().toEpochMilli(), words.lastModified());
+        assertEquals(1, glossariesAfterAdd.getVersion());
+        assertEquals(2, glossaryService.getGlossariesVersion(savedUser.getId()).getVersion());
+        assertEquals(1, wordService.getWordsVersion(savedG1.getId()).getVersion());
+        assertThat(glossariesAfterAdd.getModifiedAt(), greaterThanOrEqualTo(glossaries.getModifiedAt()));
+    }
+
+    @Test
+    @DisplayName("PATCH renames at the version that was read, the next PATCH with the same version conflicts.")
+    public void patchGlossary_version() {
+        Glossary savedG1 = glossaryRepository.save(g1);
+        GlossaryDTO patch = new GlossaryDTO();
+        patch.setName("new g");
+        patch.setVersion(glossaryService.getGlossaryById(savedG1.getId()).getVersion());
+        ListVersionDTO glossaries = glossaryService.getGlossariesVersion(savedUser.getId());
+
+        glossaryService.patchGlossary(patch, savedG1.getId());
+
+        GlossaryDTO patched = glossaryService.getGlossaryById(savedG1.getId());
+        assertEquals("new g", patched.getName());
+        assertEquals(patch.getVersion() + 1, patched.getVersion());
+        assertThat(glossaryService.getGlossariesVersion(savedUser.getId()).getVersion(), greaterThan(glossaries.getVersion()));
+        assertThatThrownBy(() -> glossaryService.patchGlossary(patch, savedG1.getId()))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> glossaryService.patchGlossary(patch, savedG1.getId() + 1000))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void patchGlossary_nameTaken() {
+        Glossary savedG1 = glossaryRepository.save(g1);
+        glossaryRepository.save(g2);
+        GlossaryDTO patch = new GlossaryDTO();
+        patch.setName(g2.getName());
+        patch.setVersion(savedG1.getVersion());
+
+        assertThatThrownBy(() -> glossaryService.patchGlossary(patch, savedG1.getId()))
+                .isInstanceOf(InvalidRequestException.class);
+        assertEquals(g1.getName(), glossaryService.getGlossaryById(savedG1.getId()).getName());
+    }
 }
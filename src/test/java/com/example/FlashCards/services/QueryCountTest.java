@@ -0,0 +1,171 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.GlossaryDTO;
+import com.example.FlashCards.DTOs.UserDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import com.example.FlashCards.utils.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exact number of SQL statements per service method, so a mapping change that brings back lazy loading
+ * (N+1 selects) fails here. Two words in the glossary are enough to tell 1 select from 1 + N.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+public class QueryCountTest {
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    GlossaryService glossaryService;
+    @Autowired
+    WordService wordService;
+    @Autowired
+    ChangeLogService changeLogService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+
+    User user;
+    Glossary glossary;
+    Word w1;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .name("u1")
+                .password("p1")
+                .build());
+        glossary = glossaryRepository.save(Glossary.builder()
+                .name("g1")
+                .user(user)
+                .build());
+        w1 = wordRepository.save(Word.builder()
+                .name("w1")
+                .glossary(glossary)
+                .build());
+        wordRepository.save(Word.builder()
+                .name("w2")
+                .glossary(glossary)
+                .build());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private void assertStatements(int selects, int inserts, int updates, int deletes, Runnable call) {
+        queryCounter.reset();
+        call.run();
+        assertEquals(new QueryCounter.Counts(selects, inserts, updates, deletes, 0), queryCounter.current());
+    }
+
+    private UserDTO userDTO(String name, String password) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setName(name);
+        userDTO.setPassword(password);
+        return userDTO;
+    }
+
+    @Test
+    public void userService() {
+        assertStatements(1, 0, 0, 0, () -> userService.getUserById(user.getId()));
+        assertStatements(1, 0, 0, 0, () -> userService.getUserByName("u1"));
+        assertStatements(1, 0, 0, 0, () -> userService.getAllUsers());
+        assertStatements(1, 0, 0, 0, () -> userService.getUsers(null, 50, "id"));
+        assertStatements(1, 0, 0, 0, () -> userService.login(userDTO("u1", "p1")));
+        assertStatements(1, 1, 0, 0, () -> userService.add(userDTO("u2", "p2")));
+        // the user, the versions of its glossary list and word lists, and the change log entry with its number
+        assertStatements(2, 1, 4, 0, () -> userService.updateUser(userDTO("u1b", "p1b"), user.getId()));
+        // PATCH: the user, the same two list versions and the entry, only the change number is read
+        UserDTO patch = userDTO("u1c", null);
+        patch.setVersion(userService.getUserById(user.getId()).getVersion());
+        assertStatements(1, 1, 4, 0, () -> userService.patchUser(patch, user.getId()));
+        // words, glossaries, user
+        assertStatements(1, 0, 0, 3, () -> userService.deleteById(user.getId()));
+    }
+
+    @Test
+    public void glossaryService() {
+        GlossaryDTO glossaryDTO = new GlossaryDTO();
+        glossaryDTO.setName("g2");
+
+        assertStatements(1, 0, 0, 0, () -> glossaryService.getAllGlossaries(user.getId()));
+        assertStatements(1, 0, 0, 0, () -> glossaryService.getGlossaries(user.getId(), null, 50, "id"));
+        assertStatements(1, 0, 0, 0, () -> glossaryService.getGlossaryById(glossary.getId()));
+        assertStatements(1, 0, 0, 0, () -> glossaryService.getGlossariesVersion(user.getId()));
+        GlossaryDTO added = glossaryService.addGlossary(user.getId(), glossaryDTO);
+        glossaryDTO.setName("g3");
+        // every change also takes a number from the user (update, select) and writes its change log entry
+        assertStatements(2, 2, 2, 0, () -> glossaryService.addGlossary(user.getId(), glossaryDTO));
+        glossaryDTO.setName("g2b");
+        // the glossary and two list versions
+        assertStatements(2, 1, 4, 0, () -> glossaryService.updateGlossary(glossaryDTO, added.getId()));
+        // PATCH: the user id of the glossary is all that is read
+        GlossaryDTO patch = new GlossaryDTO();
+        patch.setName("g2c");
+        patch.setVersion(glossaryService.getGlossaryById(added.getId()).getVersion());
+        assertStatements(2, 1, 4, 0, () -> glossaryService.patchGlossary(patch, added.getId()));
+        // words, glossary, one tombstone for both
+        assertStatements(2, 1, 2, 2, () -> glossaryService.deleteGlossary(glossary.getId()));
+        assertStatements(1, 1, 2, 2, () -> glossaryService.deleteAllGlossariesByUser(user.getId()));
+    }
+
+    @Test
+    @DisplayName("Word lists, single words and search load glossary and user in the same select.")
+    public void wordService() {
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName("w3");
+
+        assertStatements(1, 0, 0, 0, () -> wordService.getAllWords(glossary.getId()));
+        assertStatements(1, 0, 0, 0, () -> wordService.getWords(glossary.getId(), null, 50, "id"));
+        assertStatements(1, 0, 0, 0, () -> wordService.getWordById(w1.getId()));
+        assertStatements(1, 0, 0, 0, () -> wordService.getWordsVersion(glossary.getId()));
+        // the index is built once, then searches don't touch the database
+        assertStatements(1, 0, 0, 0, () -> wordService.searchWords(user.getId(), "w", 20));
+        assertStatements(0, 0, 0, 0, () -> wordService.searchWords(user.getId(), "w", 20));
+        // word, review card and change log entry, then version and counters of the glossary and the change number
+        // of the user (with its last activity), read back for the entry
+        assertStatements(2, 3, 2, 0, () -> wordService.addWord(glossary.getId(), wordDTO));
+        // one JDBC batch each for the words, the cards and the entries
+        assertStatements(2, 3, 2, 0, () -> wordService.addWords(glossary.getId(), List.of("w4", "w5")));
+        wordDTO.setName("w1b");
+        assertStatements(2, 1, 3, 0, () -> wordService.updateWord(wordDTO, w1.getId()));
+        // PATCH: the glossary of the word instead of word, glossary and user
+        WordDTO patch = new WordDTO();
+        patch.setName("w1c");
+        patch.setVersion(wordService.getWordById(w1.getId()).getVersion());
+        assertStatements(2, 1, 3, 0, () -> wordService.patchWord(patch, w1.getId()));
+        assertStatements(2, 1, 2, 1, () -> wordService.deleteWord(w1.getId()));
+        // one tombstone for all words
+        assertStatements(2, 1, 2, 1, () -> wordService.deleteAllWordInGlossary(glossary.getId()));
+        // entries, position of the user, current state of the words named by the entries
+        assertStatements(3, 0, 0, 0, () -> changeLogService.getChanges(user.getId(), ChangeLogService.encode(0), 50));
+    }
+}
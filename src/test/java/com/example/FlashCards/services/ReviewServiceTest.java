@@ -0,0 +1,155 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.ReviewCardDTO;
+import com.example.FlashCards.DTOs.ReviewDTO;
+import com.example.FlashCards.DTOs.WordDTO;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.ReviewCard;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.exceptions.InvalidRequestException;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.ReviewCardRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ReviewServiceTest {
+
+    @Autowired
+    ReviewService reviewService;
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+    @Autowired
+    ReviewCardRepository reviewCardRepository;
+
+    User user;
+    Glossary glossary;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .name("u1")
+                .password("p1")
+                .build());
+        glossary = glossaryRepository.save(Glossary.builder()
+                .name("g1")
+                .user(user)
+                .build());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        // the cards are deleted along with the words by the database
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private WordDTO addWord(String name) {
+        WordDTO wordDTO = new WordDTO();
+        wordDTO.setName(name);
+        return wordService.addWord(glossary.getId(), wordDTO);
+    }
+
+    private ReviewDTO review(Long wordId, int grade) {
+        ReviewDTO reviewDTO = new ReviewDTO();
+        reviewDTO.setWordId(wordId);
+        reviewDTO.setGrade(grade);
+        return reviewDTO;
+    }
+
+    @Test
+    @DisplayName("New words are due right away, an answered card is not due anymore.")
+    public void getDueCards_success() {
+        WordDTO w1 = addWord("w1");
+        WordDTO w2 = addWord("w2");
+        wordService.addWords(glossary.getId(), List.of("w3"));
+
+        assertEquals(3, reviewService.getDueCards(user.getId(), 20).size());
+        assertEquals(2, reviewService.getDueCards(user.getId(), 2).size());
+
+        reviewService.answer(review(w1.getId(), 4));
+
+        List<ReviewCardDTO> due = reviewService.getDueCards(user.getId(), 20);
+        assertEquals(2, due.size());
+        assertFalse(due.stream().anyMatch(card -> card.getWordId().equals(w1.getId())));
+        assertTrue(due.stream().anyMatch(card -> card.getWordId().equals(w2.getId()) && card.getName().equals("w2")));
+    }
+
+    @Test
+    public void getDueCards_failure() {
+        assertThatThrownBy(() -> reviewService.getDueCards(user.getId() + 1000, 20))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> reviewService.getDueCards(user.getId(), 0))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    public void answer_success() {
+        WordDTO w1 = addWord("w1");
+
+        ReviewCardDTO first = reviewService.answer(review(w1.getId(), 5));
+        ReviewCardDTO second = reviewService.answer(review(w1.getId(), 5));
+
+        assertEquals(1, first.getIntervalDays());
+        assertEquals(6, second.getIntervalDays());
+        assertEquals(2, second.getRepetitions());
+        assertEquals(6, reviewCardRepository.findById(w1.getId()).orElseThrow().getIntervalDays());
+    }
+
+    @Test
+    public void answer_failure() {
+        WordDTO w1 = addWord("w1");
+
+        assertThatThrownBy(() -> reviewService.answer(review(w1.getId(), 6)))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> reviewService.answer(review(w1.getId() + 1000, 3)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("SM-2: intervals 1, 6, then interval * ease; a lapse starts over and lowers the ease.")
+    public void schedule() {
+        Instant now = Instant.now();
+        ReviewCard card = ReviewCard.builder()
+                .ease(ReviewCard.INITIAL_EASE)
+                .build();
+
+        ReviewService.schedule(card, 5, now);
+        ReviewService.schedule(card, 5, now);
+        ReviewService.schedule(card, 5, now);
+        assertEquals(3, card.getRepetitions());
+        assertEquals(2.8, card.getEase(), 1e-9);
+        assertEquals(Math.round(6 * 2.7), card.getIntervalDays());
+        assertEquals(now.plus(Duration.ofDays(card.getIntervalDays())), card.getDueAt());
+
+        ReviewService.schedule(card, 1, now);
+        assertEquals(0, card.getRepetitions());
+        assertEquals(1, card.getLapses());
+        assertEquals(1, card.getIntervalDays());
+        assertEquals(2.8 - 0.54, card.getEase(), 1e-9);
+    }
+}
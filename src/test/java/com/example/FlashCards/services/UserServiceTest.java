@@ -1,11 +1,15 @@
 package com.example.FlashCards.services;
 
+import com.example.FlashCards.DTOs.DeleteResultDTO;
+import com.example.FlashCards.DTOs.SliceDTO;
 import com.example.FlashCards.DTOs.UserDTO;
 import com.example.FlashCards.configurations.Entity2DTOMapper;
 import com.example.FlashCards.entities.User;
 import com.example.FlashCards.exceptions.InvalidRequestException;
 import com.example.FlashCards.exceptions.NotFoundException;
 import com.example.FlashCards.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +32,9 @@ public class UserServiceTest {
     @Autowired
     UserRepository repository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     Entity2DTOMapper mapper = new Entity2DTOMapper();
 
     private UserDTO u1;
@@ -56,6 +63,7 @@ public class UserServiceTest {
         UserDTO userDTO = service.getUserById(user.getId());
 
         assertEquals(u1.getName(), userDTO.getName());
+        assertNull(userDTO.getPassword());
     }
 
     @Test
@@ -88,6 +96,13 @@ public class UserServiceTest {
         User user2 = repository.save(mapper.map(u2, User.class));
         UserDTO userDTO1 = mapper.map(user1, UserDTO.class);
         UserDTO userDTO2 = mapper.map(user2, UserDTO.class);
+        // reads never select the password, but the counters
+        userDTO1.setPassword(null);
+        userDTO2.setPassword(null);
+        userDTO1.setGlossaryCount(0L);
+        userDTO2.setGlossaryCount(0L);
+        userDTO1.setLastActivityAt(userDTO1.getCreatedAt());
+        userDTO2.setLastActivityAt(userDTO2.getCreatedAt());
 
         List<UserDTO> testUsers = service.getAllUsers();
 
@@ -104,6 +119,35 @@ public class UserServiceTest {
         assertEquals(u2.getPassword(), user2.getPassword());
     }
 
+    @Test
+    public void getUsers_pagesWithCursor() {
+        UserDTO u3 = new UserDTO();
+        u3.setName("name3");
+        u3.setPassword("pass3");
+        User user1 = repository.save(mapper.map(u1, User.class));
+        User user2 = repository.save(mapper.map(u2, User.class));
+        User user3 = repository.save(mapper.map(u3, User.class));
+
+        SliceDTO<UserDTO> firstPage = service.getUsers(null, 2, "id");
+        SliceDTO<UserDTO> secondPage = service.getUsers(firstPage.getNext(), 2, "id");
+
+        assertEquals(List.of(user1.getId(), user2.getId()),
+                firstPage.getContent().stream().map(UserDTO::getId).toList());
+        assertNotNull(firstPage.getNext());
+        assertEquals(List.of(user3.getId()),
+                secondPage.getContent().stream().map(UserDTO::getId).toList());
+        assertNull(secondPage.getNext());
+    }
+
+    @Test
+    public void getUsers_invalidCursor_failure() {
+        assertThatThrownBy(() -> service.getUsers("not-a-cursor", 2, "id"))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getUsers(null, 0, "id"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Limit must be between 1 and 500.");
+    }
+
     @Test
     public void addUser_success() {
         UserDTO testUserDTO = service.add(u1);
@@ -149,8 +193,9 @@ public class UserServiceTest {
     public void deleteUser_success() {
         User user = repository.save(mapper.map(u1, User.class));
 
-        service.deleteById(user.getId());
+        DeleteResultDTO deleted = service.deleteById(user.getId());
 
+        assertEquals(new DeleteResultDTO(1, 0, 0), deleted);
         assertEquals(0, service.getAllUsers().size());
     }
 
@@ -180,4 +225,17 @@ public class UserServiceTest {
 
         assertFalse(success);
     }
+
+    @Test
+    public void getUserById_timed() {
+        assertThatThrownBy(() -> service.getUserById(-1L))
+                .isInstanceOf(NotFoundException.class);
+
+        Timer failed = meterRegistry.find("flashcards.service")
+                .tags("class", UserService.class.getName(), "method", "getUserById",
+                        "exception", NotFoundException.class.getSimpleName())
+                .timer();
+        assertNotNull(failed);
+        assertTrue(failed.count() >= 1);
+    }
 }
@@ -0,0 +1,129 @@
+package com.example.FlashCards.services;
+
+import com.example.FlashCards.DTOs.BulkImportResultDTO;
+import com.example.FlashCards.entities.Glossary;
+import com.example.FlashCards.entities.User;
+import com.example.FlashCards.entities.Word;
+import com.example.FlashCards.exceptions.NotFoundException;
+import com.example.FlashCards.repositories.GlossaryRepository;
+import com.example.FlashCards.repositories.UserRepository;
+import com.example.FlashCards.repositories.WordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "flashcards.words.bulk.chunk-size=2")
+public class WordImportServiceTest {
+
+    @Autowired
+    WordImportService wordImportService;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    GlossaryRepository glossaryRepository;
+    @Autowired
+    WordRepository wordRepository;
+
+    Glossary glossary;
+
+    @BeforeEach
+    public void setUp() {
+        User user = userRepository.save(User.builder()
+                .name("u1")
+                .password("p1")
+                .build());
+        glossary = glossaryRepository.save(Glossary.builder()
+                .name("g1")
+                .user(user)
+                .build());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        wordRepository.deleteAll();
+        glossaryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Import 5 words over 3 chunks, rejecting a duplicate and a word without name.")
+    public void importWords_success() throws Exception {
+        BulkImportResultDTO result = wordImportService.importWords(glossary.getId(), json(
+                "[{\"name\":\"w1\"},{\"name\":\"w2\"},{\"name\":\"w1\"},{},{\"name\":\"w3\"}]"));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertNull(result.getError());
+        assertThat(wordRepository.findByGlossaryId(glossary.getId()).stream().map(Word::getName).toList(),
+                containsInAnyOrder("w1", "w2", "w3"));
+        assertThat(result.getItems().stream()
+                        .filter(item -> item.getStatus() == BulkImportResultDTO.Status.CREATED)
+                        .map(BulkImportResultDTO.Item::getId)
+                        .toList(),
+                everyItem(notNullValue()));
+    }
+
+    @Test
+    @DisplayName("Words that already exist are rejected, the rest of the chunk is imported.")
+    public void importWords_existingName() throws Exception {
+        wordRepository.save(Word.builder()
+                .name("w1")
+                .glossary(glossary)
+                .build());
+
+        BulkImportResultDTO result = wordImportService.importWords(glossary.getId(), json(
+                "[{\"name\":\"w1\"},{\"name\":\"w2\"}]"));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of(BulkImportResultDTO.Status.REJECTED, BulkImportResultDTO.Status.CREATED),
+                result.getItems().stream().map(BulkImportResultDTO.Item::getStatus).toList());
+    }
+
+    @Test
+    @DisplayName("Names are unique per glossary, a word of another glossary doesn't block the import.")
+    public void importWords_nameInOtherGlossary() throws Exception {
+        Glossary other = glossaryRepository.save(Glossary.builder()
+                .name("g2")
+                .user(glossary.getUser())
+                .build());
+        wordRepository.save(Word.builder()
+                .name("w1")
+                .glossary(other)
+                .build());
+
+        BulkImportResultDTO result = wordImportService.importWords(glossary.getId(), json("[{\"name\":\"w1\"}]"));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(0, result.getRejected());
+        assertEquals(2, wordRepository.findNamesInGlossary(glossary.getId(), List.of("w1")).size()
+                + wordRepository.findNamesInGlossary(other.getId(), List.of("w1")).size());
+    }
+
+    @Test
+    public void importWords_failure() {
+        assertThatThrownBy(() -> wordImportService.importWords(glossary.getId() + 1000, json("[]")))
+                .isInstanceOf(NotFoundException.class);
+    }
+}
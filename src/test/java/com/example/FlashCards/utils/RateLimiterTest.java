@@ -0,0 +1,125 @@
+package com.example.FlashCards.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    AtomicLong now;
+    RateLimiter rateLimiter;
+    // 10 per second, 3 at once
+    RateLimiter.Limit limit = new RateLimiter.Limit(10, 3);
+
+    @BeforeEach
+    public void setUp() {
+        now = new AtomicLong();
+        rateLimiter = new RateLimiter(1000, Duration.ofMinutes(1), now::get);
+    }
+
+    @Test
+    @DisplayName("A burst goes through, then one request per interval")
+    public void acquire_burstThenRate() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.acquire("k", limit));
+        }
+        assertEquals(Duration.ofMillis(100).toNanos(), rateLimiter.acquire("k", limit));
+        assertEquals(0, rateLimiter.acquire("other", limit));
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertEquals(0, rateLimiter.acquire("k", limit));
+        assertTrue(rateLimiter.acquire("k", limit) > 0);
+
+        // full again after 300ms
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.acquire("k", limit));
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent requests get exactly the burst")
+    public void acquire_concurrent() throws Exception {
+        RateLimiter.Limit hundred = new RateLimiter.Limit(1, 100);
+        AtomicInteger allowed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (rateLimiter.acquire("k", hundred) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    @DisplayName("Idle buckets are dropped")
+    public void buckets_expire() {
+        rateLimiter.acquire("k", limit);
+        assertEquals(1, rateLimiter.size());
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    @DisplayName("429 with Retry-After once the bucket of the user is empty, other users go on")
+    public void filter_tooManyRequests() throws Exception {
+        RateLimiter.Limit one = new RateLimiter.Limit(0.5, 1);
+        RateLimiter.Limit many = new RateLimiter.Limit(100, 100);
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter,
+                Map.of(RateLimitFilter.EndpointClass.LOGIN, one, RateLimitFilter.EndpointClass.WRITES, one,
+                        RateLimitFilter.EndpointClass.READS, one),
+                Map.of(RateLimitFilter.EndpointClass.LOGIN, many, RateLimitFilter.EndpointClass.WRITES, many,
+                        RateLimitFilter.EndpointClass.READS, many),
+                new SimpleMeterRegistry());
+
+        assertEquals(200, post(filter, "/glossaries/user/7").getStatus());
+        MockHttpServletResponse rejected = post(filter, "/glossaries/user/7/");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, post(filter, "/glossaries/user/8").getStatus());
+        // words name no user, only the address counts
+        assertEquals(200, post(filter, "/words/glossary/1").getStatus());
+        assertEquals(200, post(filter, "/words/glossary/1").getStatus());
+    }
+
+    private static MockHttpServletResponse post(RateLimitFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    public void classify_andUser() {
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/users/login");
+        login.setParameter("username", "u1");
+        assertEquals(RateLimitFilter.EndpointClass.LOGIN, RateLimitFilter.classify(login));
+        assertEquals("name:u1", RateLimitFilter.user(login, RateLimitFilter.EndpointClass.LOGIN));
+
+        MockHttpServletRequest due = new MockHttpServletRequest("GET", "/users/12/due");
+        assertEquals(RateLimitFilter.EndpointClass.READS, RateLimitFilter.classify(due));
+        assertEquals("id:12", RateLimitFilter.user(due, RateLimitFilter.EndpointClass.READS));
+
+        MockHttpServletRequest addUser = new MockHttpServletRequest("POST", "/users");
+        assertEquals(RateLimitFilter.EndpointClass.WRITES, RateLimitFilter.classify(addUser));
+        assertNull(RateLimitFilter.user(addUser, RateLimitFilter.EndpointClass.WRITES));
+        assertNull(RateLimitFilter.user(new MockHttpServletRequest("GET", "/users/12x"), RateLimitFilter.EndpointClass.READS));
+    }
+}